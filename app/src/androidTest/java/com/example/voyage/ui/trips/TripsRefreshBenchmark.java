@@ -0,0 +1,195 @@
+package com.example.voyage.ui.trips;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.example.voyage.R;
+import com.example.voyage.data.models.SeatPrice;
+import com.example.voyage.data.models.Stage;
+import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.trips.TripDisplayMapper;
+import com.example.voyage.data.trips.TripDisplayModel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the main thread cost of refreshing a 500 trip list where a few trips changed,
+ * once through the diffing adapter and once with a full notifyDataSetChanged.
+ * <p>
+ * The list is not attached to a window, so the frame is the measure and layout pass the
+ * refresh triggers, timed on the main thread. FrameMetrics needs an activity window and API
+ * 24, and androidx.benchmark a newer Android Gradle plugin than this project builds with.
+ * Results are written to logcat under the class name.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TripsRefreshBenchmark {
+    private static final String LOG_TAG = TripsRefreshBenchmark.class.getSimpleName();
+
+    private static final int TRIP_COUNT = 500;
+    private static final int CHANGED_EVERY = 25;
+    private static final int ITERATIONS = 20;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final double FRAME_MILLIS = 1000 / 60d;
+
+    private Instrumentation instrumentation;
+    private RecyclerView recyclerView;
+    private CountingTripsAdapter adapter;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        Context context = new ContextThemeWrapper(
+                instrumentation.getTargetContext(), R.style.AppTheme);
+
+        instrumentation.runOnMainSync(() -> {
+            recyclerView = new RecyclerView(context);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            adapter = new CountingTripsAdapter(context);
+            recyclerView.setAdapter(adapter);
+        });
+    }
+
+    @Test
+    public void refreshFiveHundredTrips() throws InterruptedException {
+        submitAndWait(trips(0));
+        layout();
+
+        long diffedLayoutNanos = 0;
+        long diffLatencyNanos = 0;
+        int diffedBinds = 0;
+        for (int i = 1; i <= ITERATIONS; i++) {
+            adapter.binds = 0;
+            long submitted = SystemClock.elapsedRealtimeNanos();
+            submitAndWait(trips(i));
+            diffLatencyNanos += SystemClock.elapsedRealtimeNanos() - submitted;
+            diffedLayoutNanos += layout();
+            diffedBinds += adapter.binds;
+        }
+
+        long fullLayoutNanos = 0;
+        int fullBinds = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            adapter.binds = 0;
+            instrumentation.runOnMainSync(adapter::notifyDataSetChanged);
+            fullLayoutNanos += layout();
+            fullBinds += adapter.binds;
+        }
+
+        Log.i(LOG_TAG, String.format(
+                "%d trips, %d refreshes. Diffed: %.2f ms frame, %.2f ms to dispatch, %.1f binds."
+                        + " Full: %.2f ms frame, %.1f binds",
+                TRIP_COUNT, ITERATIONS,
+                millis(diffedLayoutNanos), millis(diffLatencyNanos),
+                diffedBinds / (float) ITERATIONS,
+                millis(fullLayoutNanos), fullBinds / (float) ITERATIONS));
+
+        assertTrue(diffedBinds <= fullBinds);
+        assertTrue("Diffed refresh took " + millis(diffedLayoutNanos) + " ms a frame",
+                millis(diffedLayoutNanos) < FRAME_MILLIS);
+        assertTrue("Diffed refresh slower than a full one",
+                diffedLayoutNanos <= fullLayoutNanos);
+    }
+
+    private void submitAndWait(List<TripDisplayModel> trips) throws InterruptedException {
+        CountDownLatch dispatched = new CountDownLatch(1);
+        RecyclerView.AdapterDataObserver observer = new RecyclerView.AdapterDataObserver() {
+            @Override
+            public void onChanged() {
+                dispatched.countDown();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                dispatched.countDown();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                dispatched.countDown();
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                dispatched.countDown();
+            }
+        };
+        instrumentation.runOnMainSync(() -> {
+            adapter.registerAdapterDataObserver(observer);
+            adapter.setTrips(trips);
+        });
+        assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+        instrumentation.runOnMainSync(() -> adapter.unregisterAdapterDataObserver(observer));
+    }
+
+    /**
+     * Runs one measure and layout pass, which is the work the next frame has to do.
+     */
+    private long layout() {
+        long[] elapsed = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            long start = SystemClock.elapsedRealtimeNanos();
+            recyclerView.measure(
+                    View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            recyclerView.layout(0, 0, WIDTH, HEIGHT);
+            elapsed[0] = SystemClock.elapsedRealtimeNanos() - start;
+        });
+        return elapsed[0];
+    }
+
+    /**
+     * A fresh list each time, with every 25th trip repriced by the given generation.
+     */
+    private static List<TripDisplayModel> trips(int generation) {
+        Stage origin = new Stage(1, "Nairobi");
+        Stage destination = new Stage(2, "Mombasa");
+        List<Trip> trips = new ArrayList<>(TRIP_COUNT);
+        for (int id = 1; id <= TRIP_COUNT; id++) {
+            int price = 1000 + (id % CHANGED_EVERY == 0 ? generation : 0);
+            String hour = String.valueOf(id % 24 < 10 ? "0" + id % 24 : id % 24);
+            trips.add(new Trip(id, "Nairobi", "Mombasa", id,
+                    "2019-07-01 " + hour + ":00:00", "2019-07-01 " + hour + ":45:00",
+                    new SeatPrice(price, price / 2), origin, destination));
+        }
+        return new TripDisplayMapper().map(trips);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) ITERATIONS / 1_000_000d;
+    }
+
+    private static class CountingTripsAdapter extends TripsAdapter {
+        int binds;
+
+        CountingTripsAdapter(Context context) {
+            super(context, (tripId, pickPoint, dropPoint, busId) -> {
+            });
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull ItemViewHolder viewHolder, int position) {
+            binds++;
+            super.onBindViewHolder(viewHolder, position);
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.example.voyage.auth;
 import android.util.Log;
 import android.widget.Toast;
 
+import com.example.voyage.data.local.BookingStore;
+import com.example.voyage.data.local.VoyageOutbox;
+import com.example.voyage.data.network.retrofit.RetryPolicy;
 import com.example.voyage.data.network.retrofit.VoyageClient;
 import com.example.voyage.data.network.retrofit.VoyageService;
 import com.example.voyage.data.repositories.VoyageRepository;
@@ -10,6 +13,7 @@ import com.example.voyage.fcm.VoyageMessagingService;
 import com.example.voyage.util.ApplicationContextProvider;
 import com.example.voyage.util.NetworkUtils;
 import com.example.voyage.util.PreferenceUtilities;
+import com.example.voyage.util.SchedulerProvider;
 import com.google.gson.JsonObject;
 
 import java.io.IOException;
@@ -18,21 +22,39 @@ import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
-import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.AsyncSubject;
 import retrofit2.Response;
 
+/**
+ * Signs users in and out and keeps track of the current one. Users are always delivered on
+ * the ui scheduler, so callers do not need to switch threads again.
+ */
 public class VoyageAuth implements BaseAuth<VoyageUser> {
     private static final String LOG_TAG = VoyageAuth.class.getSimpleName();
     private static VoyageAuth instance;
 
-    private VoyageService voyageService = VoyageClient.getInstance().getVoyageService();
+    private SchedulerProvider schedulers = SchedulerProvider.getInstance();
 
     private AsyncSubject<VoyageUser> userSubject = AsyncSubject.create();
 
     private VoyageAuth() {
+        PreferenceUtilities.addTokenListener(this::onTokenChanged);
+    }
+
+    /**
+     * Forgets the signed in user as soon as the stored token goes away, wherever it was
+     * removed, so {@link #currentUser()} stops handing it out.
+     */
+    private void onTokenChanged(String token) {
+        if (token == null && userSubject != null && userSubject.hasComplete()) {
+            userSubject = AsyncSubject.create();
+        }
+    }
+
+    // Looked up on use, building the auth must not build the http client
+    private VoyageService voyageService() {
+        return VoyageClient.getInstance().getVoyageService();
     }
 
     public static VoyageAuth getInstance() {
@@ -51,9 +73,9 @@ public class VoyageAuth implements BaseAuth<VoyageUser> {
         if (userSubject == null) {
             userSubject = AsyncSubject.create();
         }
-        Single.fromObservable(voyageService.login(postParameters))
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
+        Single.fromObservable(voyageService().login(postParameters))
+                .subscribeOn(schedulers.network())
+                .observeOn(schedulers.ui())
                 .subscribe(saveUserObserver);
 
         return userSubject;
@@ -73,9 +95,9 @@ public class VoyageAuth implements BaseAuth<VoyageUser> {
         if (userSubject == null) {
             userSubject = AsyncSubject.create();
         }
-        Single.fromObservable(voyageService.register(postParameters))
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
+        Single.fromObservable(voyageService().register(postParameters))
+                .subscribeOn(schedulers.network())
+                .observeOn(schedulers.ui())
                 .subscribe(saveUserObserver);
 
         return userSubject;
@@ -91,15 +113,34 @@ public class VoyageAuth implements BaseAuth<VoyageUser> {
         String token = PreferenceUtilities.getUserToken(ApplicationContextProvider.getContext());
         if (token != null) {
             String authHeader = "Bearer ".concat(token);
-            Completable completable = Completable.fromObservable(voyageService.logout(authHeader));
-            Disposable d = completable.subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
+            Completable completable = Completable.fromObservable(voyageService().logout(authHeader));
+            Disposable d = completable.subscribeOn(schedulers.network())
+                    .observeOn(schedulers.ui())
                     .subscribe(() -> {
                         userSubject = null;
                         Log.d(LOG_TAG, "Logged out successfully");
                     }, Throwable::printStackTrace);
         }
         PreferenceUtilities.setUserToken(ApplicationContextProvider.getContext(), null);
+        PreferenceUtilities.setSession(ApplicationContextProvider.getContext(), null);
+
+        // Cached responses and queued requests belong to the user that is leaving
+        VoyageOutbox.getInstance().clear();
+        BookingStore.getInstance().clear();
+        Disposable d = Completable.fromAction(VoyageClient.getInstance()::clearHttpCache)
+                .subscribeOn(schedulers.disk())
+                .subscribe(() -> Log.d(LOG_TAG, "Http cache cleared"), Throwable::printStackTrace);
+    }
+
+    /**
+     * Called when the server rejects the stored token. Drops the local session so the next
+     * request or app start goes through login again.
+     */
+    public void invalidateSession() {
+        Log.d(LOG_TAG, "Token rejected by server. Clearing session");
+        PreferenceUtilities.setUserToken(ApplicationContextProvider.getContext(), null);
+        PreferenceUtilities.setSession(ApplicationContextProvider.getContext(), null);
+        userSubject = AsyncSubject.create();
     }
 
     public Observable<VoyageUser> currentUser() {
@@ -113,17 +154,34 @@ public class VoyageAuth implements BaseAuth<VoyageUser> {
 
         String token = PreferenceUtilities.getUserToken(ApplicationContextProvider.getContext());
         if (token != null) {
+            // Trust the stored session until it expires instead of asking the server first
+            VoyageSession session = PreferenceUtilities.getSession(
+                    ApplicationContextProvider.getContext());
+            if (session != null && session.isValidFor(token)) {
+                userSubject.onNext(session.toUser());
+                userSubject.onComplete();
+                return userSubject;
+            }
+
             String authHeader = "Bearer ".concat(token);
             Log.d(LOG_TAG, "Stored token: " + token);
-            Disposable d = Single.fromObservable(voyageService.getUser(authHeader))
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
+            Disposable d = Single.fromObservable(voyageService().getUser(authHeader))
+                    .subscribeOn(schedulers.network())
+                    .compose(RetryPolicy.getInstance().<VoyageUser>retrying("user"))
+                    .observeOn(schedulers.ui())
                     .onErrorResumeNext(throwable ->
                             Single.just(Response.success(new VoyageUser(throwable))))
                     .subscribe(response -> {
                         if (response.isSuccessful()) {
                             assert response.body() != null;
                             response.body().setToken(token);
+                            // A failed call stands in an empty user, it must not be trusted
+                            // as the session on later starts
+                            if (response.body().getThrowable() == null) {
+                                PreferenceUtilities.setSession(
+                                        ApplicationContextProvider.getContext(),
+                                        VoyageSession.fromUser(response.body()));
+                            }
                             userSubject.onNext(response.body());
                             userSubject.onComplete();
                         }
@@ -160,6 +218,9 @@ public class VoyageAuth implements BaseAuth<VoyageUser> {
                         PreferenceUtilities.setUserToken(
                                 ApplicationContextProvider.getContext(),
                                 voyageUserResponse.body().getToken());
+                        PreferenceUtilities.setSession(
+                                ApplicationContextProvider.getContext(),
+                                VoyageSession.fromUser(voyageUserResponse.body()));
 
                         sendFcmRegistrationToServer();
 
@@ -0,0 +1,59 @@
+package com.example.voyage.auth;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locally stored copy of the signed in user. While it has not expired it is trusted without
+ * asking the server, a 401 from a real API call is what ends it early.
+ */
+public class VoyageSession {
+
+    static final long SESSION_LIFETIME = TimeUnit.DAYS.toMillis(7);
+
+    private final String token;
+
+    @SerializedName("first_name")
+    private final String firstName;
+
+    @SerializedName("last_name")
+    private final String lastName;
+
+    private final String email;
+
+    @SerializedName("expires_at")
+    private final long expiresAt;
+
+    public VoyageSession(String token, String firstName, String lastName, String email,
+                         long expiresAt) {
+        this.token = token;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.expiresAt = expiresAt;
+    }
+
+    static VoyageSession fromUser(VoyageUser user) {
+        return new VoyageSession(user.getToken(), user.getFirstName(), user.getLastName(),
+                user.getEmail(), System.currentTimeMillis() + SESSION_LIFETIME);
+    }
+
+    public boolean isValidFor(String token) {
+        return this.token != null
+                && this.token.equals(token)
+                && System.currentTimeMillis() < expiresAt;
+    }
+
+    VoyageUser toUser() {
+        return new VoyageUser(token, firstName, lastName, email);
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
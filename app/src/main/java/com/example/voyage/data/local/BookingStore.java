@@ -0,0 +1,168 @@
+package com.example.voyage.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.voyage.data.models.Booking;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.SchedulerProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * The user's bookings on disk. Filled by incremental sync: the newest updatedAt held is the
+ * cursor sent as {@code updated_since}, and the changes the server returns are merged by id.
+ * The cursor is inclusive, bookings already held come back again and replace themselves.
+ */
+public class BookingStore {
+    private static final String LOG_TAG = BookingStore.class.getSimpleName();
+    private static BookingStore instance;
+
+    private static final String ORDER_NEWEST_FIRST = VoyageDatabaseHelper.COLUMN_DATE_BOOKED
+            + " DESC, " + VoyageDatabaseHelper.COLUMN_BOOKING_ID + " DESC";
+
+    private final VoyageDatabaseHelper databaseHelper;
+    private final SchedulerProvider schedulers = SchedulerProvider.getInstance();
+
+    private BookingStore() {
+        databaseHelper = VoyageDatabaseHelper.getInstance(ApplicationContextProvider.getContext());
+    }
+
+    public static synchronized BookingStore getInstance() {
+        if (instance == null) {
+            instance = new BookingStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Every stored booking, newest first, read on the disk scheduler.
+     */
+    public Single<List<Booking>> load() {
+        return Single.fromCallable(this::getAll)
+                .subscribeOn(schedulers.disk());
+    }
+
+    /**
+     * The cursor for the next sync, empty when nothing with an updatedAt is stored yet so the
+     * server sends everything.
+     */
+    public Single<String> cursor() {
+        return Single.fromCallable(() -> {
+            String cursor = getCursor();
+            return cursor != null ? cursor : "";
+        }).subscribeOn(schedulers.disk());
+    }
+
+    /**
+     * Applies changed bookings in one transaction and returns the merged list. Deleted ones
+     * are removed, the rest replace the stored row with the same id. Bookings without an id
+     * are skipped.
+     *
+     * @param complete whether the changes are the whole list, as after a sync without a
+     *                 cursor, in which case stored bookings missing from it are dropped
+     */
+    public Single<List<Booking>> merge(List<Booking> changes, boolean complete) {
+        return Single.fromCallable(() -> {
+            put(changes, complete);
+            return getAll();
+        }).subscribeOn(schedulers.disk());
+    }
+
+    /**
+     * Drops every booking, used when the user signs out.
+     */
+    public void clear() {
+        Disposable disposable = Completable.fromAction(() ->
+                databaseHelper.getWritableDatabase().delete(
+                        VoyageDatabaseHelper.TABLE_BOOKINGS, null, null))
+                .subscribeOn(schedulers.disk())
+                .subscribe(() -> {
+                }, throwable -> Log.e(LOG_TAG, "Could not clear bookings", throwable));
+    }
+
+    private List<Booking> getAll() {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        List<Booking> bookings = new ArrayList<>();
+        try (Cursor cursor = db.query(VoyageDatabaseHelper.TABLE_BOOKINGS, null, null, null,
+                null, null, ORDER_NEWEST_FIRST)) {
+
+            while (cursor.moveToNext()) {
+                bookings.add(bookingOf(cursor));
+            }
+        }
+        return bookings;
+    }
+
+    private String getCursor() {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(VoyageDatabaseHelper.TABLE_BOOKINGS,
+                new String[]{"MAX(" + VoyageDatabaseHelper.COLUMN_UPDATED_AT + ")"},
+                null, null, null, null, null)) {
+
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    private void put(List<Booking> changes, boolean complete) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (complete) {
+                db.delete(VoyageDatabaseHelper.TABLE_BOOKINGS, null, null);
+            }
+            int skipped = 0;
+            for (Booking booking : changes) {
+                if (!booking.hasId()) {
+                    skipped++;
+                    continue;
+                }
+                if (booking.isDeleted()) {
+                    db.delete(VoyageDatabaseHelper.TABLE_BOOKINGS,
+                            VoyageDatabaseHelper.COLUMN_BOOKING_ID + " = ?",
+                            new String[]{String.valueOf(booking.getId())});
+                    continue;
+                }
+                ContentValues values = new ContentValues();
+                values.put(VoyageDatabaseHelper.COLUMN_BOOKING_ID, booking.getId());
+                values.put(VoyageDatabaseHelper.COLUMN_ORIGIN, booking.getOrigin());
+                values.put(VoyageDatabaseHelper.COLUMN_DESTINATION, booking.getDestination());
+                values.put(VoyageDatabaseHelper.COLUMN_DATE_BOOKED, booking.getDateBooked());
+                values.put(VoyageDatabaseHelper.COLUMN_AMOUNT, booking.getAmount());
+                values.put(VoyageDatabaseHelper.COLUMN_CONFIRMED, booking.getConfirmed());
+                values.put(VoyageDatabaseHelper.COLUMN_UPDATED_AT, booking.getUpdatedAt());
+                db.insertWithOnConflict(VoyageDatabaseHelper.TABLE_BOOKINGS, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            if (skipped > 0) {
+                Log.w(LOG_TAG, "Skipped " + skipped + " bookings without an id");
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static Booking bookingOf(Cursor cursor) {
+        return new Booking(
+                cursor.getInt(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_BOOKING_ID)),
+                cursor.getString(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_DESTINATION)),
+                cursor.getString(cursor.getColumnIndexOrThrow(VoyageDatabaseHelper.COLUMN_ORIGIN)),
+                cursor.getString(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_DATE_BOOKED)),
+                cursor.getString(cursor.getColumnIndexOrThrow(VoyageDatabaseHelper.COLUMN_AMOUNT)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(VoyageDatabaseHelper.COLUMN_CONFIRMED)),
+                cursor.getString(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_UPDATED_AT)),
+                false);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.voyage.data.local;
+
+public class CacheEntry<T> {
+
+    private final T data;
+    private final long fetchedAt;
+
+    public CacheEntry(T data, long fetchedAt) {
+        this.data = data;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public boolean isStale(long ttlMillis) {
+        return System.currentTimeMillis() - fetchedAt > ttlMillis;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.voyage.data.local;
+
+/**
+ * A queued mutation and the idempotency key it is sent with on every attempt.
+ */
+public class OutboxEntry {
+
+    private final String key;
+    private final VoyageOutbox.Kind kind;
+    private final String url;
+    private final String body;
+    private final long createdAt;
+    private final int attempts;
+
+    OutboxEntry(String key, VoyageOutbox.Kind kind, String url, String body, long createdAt,
+                int attempts) {
+        this.key = key;
+        this.kind = kind;
+        this.url = url;
+        this.body = body;
+        this.createdAt = createdAt;
+        this.attempts = attempts;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public VoyageOutbox.Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The full url for endpoints called with one, such as pay, otherwise empty.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The request body as json.
+     */
+    public String getBody() {
+        return body;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.voyage.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.voyage.data.json.VoyageGson;
+import com.example.voyage.util.SchedulerProvider;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Disk backed store for API results. Rows are kept as json per entity type and key so the
+ * screens can render the last known data straight away while a refresh runs.
+ */
+public class VoyageCache {
+    private static final String LOG_TAG = VoyageCache.class.getSimpleName();
+    private static VoyageCache instance;
+
+    public enum Entity {
+        SCHEDULES(TimeUnit.HOURS.toMillis(12)),
+        TRIPS(TimeUnit.MINUTES.toMillis(10));
+
+        private final long defaultTtl;
+
+        Entity(long defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+    }
+
+    private final VoyageDatabaseHelper databaseHelper;
+    private final Gson gson = VoyageGson.getInstance();
+    private final SchedulerProvider schedulers = SchedulerProvider.getInstance();
+    private final Map<Entity, Long> ttls = new EnumMap<>(Entity.class);
+
+    private VoyageCache() {
+        databaseHelper = VoyageDatabaseHelper.getInstance(ApplicationContextProvider.getContext());
+        for (Entity entity : Entity.values()) {
+            ttls.put(entity, entity.defaultTtl);
+        }
+    }
+
+    public static synchronized VoyageCache getInstance() {
+        if (instance == null) {
+            instance = new VoyageCache();
+        }
+        return instance;
+    }
+
+    public synchronized long getTtl(Entity entity) {
+        return ttls.get(entity);
+    }
+
+    public synchronized void setTtl(Entity entity, long ttlMillis) {
+        ttls.put(entity, ttlMillis);
+    }
+
+    public boolean isStale(Entity entity, CacheEntry<?> entry) {
+        return entry.isStale(getTtl(entity));
+    }
+
+    /**
+     * Reads a cached row on the disk scheduler. Completes empty when nothing usable is stored.
+     */
+    public <T> Maybe<CacheEntry<T>> load(Entity entity, String key, Type type) {
+        return Maybe.fromCallable(() -> this.<T>get(entity, key, type))
+                .subscribeOn(schedulers.disk());
+    }
+
+    public void save(Entity entity, String key, Object data) {
+        Disposable disposable = Completable.fromAction(() -> put(entity, key, data))
+                .subscribeOn(schedulers.disk())
+                .subscribe(() -> {
+                }, throwable -> Log.e(LOG_TAG, "Could not cache " + entity, throwable));
+    }
+
+    public <T> CacheEntry<T> get(Entity entity, String key, Type type) {
+        SQLiteDatabase db = databaseHelper.getReadableDatabase();
+        try (Cursor cursor = db.query(VoyageDatabaseHelper.TABLE_CACHE,
+                new String[]{VoyageDatabaseHelper.COLUMN_PAYLOAD,
+                        VoyageDatabaseHelper.COLUMN_FETCHED_AT},
+                VoyageDatabaseHelper.COLUMN_ENTITY + " = ? AND "
+                        + VoyageDatabaseHelper.COLUMN_KEY + " = ?",
+                new String[]{entity.name(), key},
+                null, null, null)) {
+
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            T data = gson.fromJson(cursor.getString(0), type);
+            if (data == null) {
+                return null;
+            }
+            return new CacheEntry<>(data, cursor.getLong(1));
+        } catch (JsonParseException e) {
+            Log.d(LOG_TAG, "Dropping unreadable " + entity + " row: " + e.getMessage());
+            remove(entity, key);
+            return null;
+        }
+    }
+
+    public void put(Entity entity, String key, Object data) {
+        ContentValues values = new ContentValues();
+        values.put(VoyageDatabaseHelper.COLUMN_ENTITY, entity.name());
+        values.put(VoyageDatabaseHelper.COLUMN_KEY, key);
+        values.put(VoyageDatabaseHelper.COLUMN_PAYLOAD, gson.toJson(data));
+        values.put(VoyageDatabaseHelper.COLUMN_FETCHED_AT, System.currentTimeMillis());
+
+        databaseHelper.getWritableDatabase().insertWithOnConflict(
+                VoyageDatabaseHelper.TABLE_CACHE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    public void remove(Entity entity, String key) {
+        databaseHelper.getWritableDatabase().delete(VoyageDatabaseHelper.TABLE_CACHE,
+                VoyageDatabaseHelper.COLUMN_ENTITY + " = ? AND "
+                        + VoyageDatabaseHelper.COLUMN_KEY + " = ?",
+                new String[]{entity.name(), key});
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.voyage.data.local;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+public class VoyageDatabaseHelper extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "voyage.db";
+    private static final int DATABASE_VERSION = 3;
+
+    // Cache table
+    static final String TABLE_CACHE = "cache_entries";
+    static final String COLUMN_ENTITY = "entity";
+    static final String COLUMN_KEY = "cache_key";
+    static final String COLUMN_PAYLOAD = "payload";
+    static final String COLUMN_FETCHED_AT = "fetched_at";
+
+    private static final String SQL_CREATE_CACHE = "CREATE TABLE " + TABLE_CACHE + " ("
+            + COLUMN_ENTITY + " TEXT NOT NULL, "
+            + COLUMN_KEY + " TEXT NOT NULL, "
+            + COLUMN_PAYLOAD + " TEXT NOT NULL, "
+            + COLUMN_FETCHED_AT + " INTEGER NOT NULL, "
+            + "PRIMARY KEY (" + COLUMN_ENTITY + ", " + COLUMN_KEY + "))";
+
+    // Outbox table
+    static final String TABLE_OUTBOX = "outbox";
+    static final String COLUMN_IDEMPOTENCY_KEY = "idempotency_key";
+    static final String COLUMN_KIND = "kind";
+    static final String COLUMN_URL = "url";
+    static final String COLUMN_BODY = "body";
+    static final String COLUMN_CREATED_AT = "created_at";
+    static final String COLUMN_ATTEMPTS = "attempts";
+
+    private static final String SQL_CREATE_OUTBOX = "CREATE TABLE " + TABLE_OUTBOX + " ("
+            + COLUMN_IDEMPOTENCY_KEY + " TEXT PRIMARY KEY, "
+            + COLUMN_KIND + " TEXT NOT NULL, "
+            + COLUMN_URL + " TEXT NOT NULL, "
+            + COLUMN_BODY + " TEXT NOT NULL, "
+            + COLUMN_CREATED_AT + " INTEGER NOT NULL, "
+            + COLUMN_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0)";
+
+    // Bookings table, a local copy of the user's bookings kept up to date by sync
+    static final String TABLE_BOOKINGS = "bookings";
+    static final String COLUMN_BOOKING_ID = "booking_id";
+    static final String COLUMN_ORIGIN = "origin";
+    static final String COLUMN_DESTINATION = "destination";
+    static final String COLUMN_DATE_BOOKED = "date_booked";
+    static final String COLUMN_AMOUNT = "amount";
+    static final String COLUMN_CONFIRMED = "confirmed";
+    static final String COLUMN_UPDATED_AT = "updated_at";
+
+    private static final String SQL_CREATE_BOOKINGS = "CREATE TABLE " + TABLE_BOOKINGS + " ("
+            + COLUMN_BOOKING_ID + " INTEGER PRIMARY KEY, "
+            + COLUMN_ORIGIN + " TEXT, "
+            + COLUMN_DESTINATION + " TEXT, "
+            + COLUMN_DATE_BOOKED + " TEXT, "
+            + COLUMN_AMOUNT + " TEXT, "
+            + COLUMN_CONFIRMED + " INTEGER NOT NULL DEFAULT 0, "
+            + COLUMN_UPDATED_AT + " TEXT)";
+
+    private static VoyageDatabaseHelper instance;
+
+    private VoyageDatabaseHelper(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized VoyageDatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new VoyageDatabaseHelper(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(SQL_CREATE_CACHE);
+        db.execSQL(SQL_CREATE_OUTBOX);
+        db.execSQL(SQL_CREATE_BOOKINGS);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Cached rows can always be fetched again, so start over
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CACHE);
+        db.execSQL(SQL_CREATE_CACHE);
+
+        // Queued requests can not be fetched again, keep them
+        if (oldVersion < 2) {
+            db.execSQL(SQL_CREATE_OUTBOX);
+        }
+        if (oldVersion < 3) {
+            db.execSQL(SQL_CREATE_BOOKINGS);
+        }
+    }
+}
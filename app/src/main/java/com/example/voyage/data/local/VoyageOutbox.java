@@ -0,0 +1,218 @@
+package com.example.voyage.data.local;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.example.voyage.data.json.VoyageGson;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.SchedulerProvider;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Disk backed queue of requests that must reach the server at most once, such as seat holds
+ * and payments. Each request gets an idempotency key when it is queued and keeps it until the
+ * server gives a final answer, so sending it again after a dropped connection can not repeat
+ * it on the server.
+ * <p>
+ * Queuing the same request again while it is still waiting returns the existing entry, so a
+ * rider tapping again after a failure reuses the key. An entry is sent at most
+ * {@link #MAX_ATTEMPTS} times, however it is sent.
+ * <p>
+ * Every read and write of the queue runs in order on one worker of the disk scheduler, so a
+ * remove can not overtake the attempt recorded before it.
+ */
+public class VoyageOutbox {
+    private static final String LOG_TAG = VoyageOutbox.class.getSimpleName();
+    private static VoyageOutbox instance;
+
+    public enum Kind {
+        PICK_SEAT,
+        PAY
+    }
+
+    // A seat hold or payment prompt sent later than this would surprise the rider
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final VoyageDatabaseHelper databaseHelper;
+    private final Gson gson = VoyageGson.getInstance();
+    private final Scheduler serial =
+            Schedulers.from(SchedulerProvider.getInstance().disk().createWorker()::schedule);
+
+    /**
+     * The entry was sent {@link #MAX_ATTEMPTS} times without a final answer, or is no longer
+     * queued, so it is not sent again.
+     */
+    public static class AttemptsExhaustedException extends IOException {
+        AttemptsExhaustedException(String key) {
+            super("Not sending outbox entry " + key + " again");
+        }
+    }
+
+    private VoyageOutbox() {
+        databaseHelper = VoyageDatabaseHelper.getInstance(ApplicationContextProvider.getContext());
+    }
+
+    public static synchronized VoyageOutbox getInstance() {
+        if (instance == null) {
+            instance = new VoyageOutbox();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues the request, or returns the entry already queued for it.
+     *
+     * @param url the full url for endpoints called with one, otherwise null
+     */
+    public Single<OutboxEntry> enqueue(Kind kind, String url, Object body) {
+        return Single.fromCallable(() -> put(kind, url != null ? url : "", gson.toJson(body)))
+                .subscribeOn(serial);
+    }
+
+    /**
+     * The entries still waiting for an answer, oldest first. Entries too old or tried too often
+     * are dropped.
+     */
+    public Single<List<OutboxEntry>> pending() {
+        return Single.fromCallable(this::getPending)
+                .subscribeOn(serial);
+    }
+
+    public <T> T bodyOf(OutboxEntry entry, Class<T> type) {
+        return gson.fromJson(entry.getBody(), type);
+    }
+
+    /**
+     * Counts an attempt at sending the entry, to be completed before it is sent. Fails with
+     * {@link AttemptsExhaustedException}, counting nothing, when the entry may not be sent again.
+     */
+    public Completable recordAttempt(String key) {
+        return Completable.fromAction(() -> {
+            try (SQLiteStatement statement = databaseHelper.getWritableDatabase().compileStatement(
+                    "UPDATE " + VoyageDatabaseHelper.TABLE_OUTBOX
+                            + " SET " + VoyageDatabaseHelper.COLUMN_ATTEMPTS + " = "
+                            + VoyageDatabaseHelper.COLUMN_ATTEMPTS + " + 1"
+                            + " WHERE " + VoyageDatabaseHelper.COLUMN_IDEMPOTENCY_KEY + " = ?"
+                            + " AND " + VoyageDatabaseHelper.COLUMN_ATTEMPTS + " < "
+                            + MAX_ATTEMPTS)) {
+                statement.bindString(1, key);
+                if (statement.executeUpdateDelete() == 0) {
+                    throw new AttemptsExhaustedException(key);
+                }
+            }
+        }).subscribeOn(serial);
+    }
+
+    /**
+     * Removes an entry once the server has given a final answer for it.
+     */
+    public void remove(String key) {
+        runOnDisk(() -> databaseHelper.getWritableDatabase().delete(
+                VoyageDatabaseHelper.TABLE_OUTBOX,
+                VoyageDatabaseHelper.COLUMN_IDEMPOTENCY_KEY + " = ?",
+                new String[]{key}), "remove");
+    }
+
+    /**
+     * Drops every queued request, used when the user signs out.
+     */
+    public void clear() {
+        runOnDisk(() -> databaseHelper.getWritableDatabase().delete(
+                VoyageDatabaseHelper.TABLE_OUTBOX, null, null), "clear");
+    }
+
+    private synchronized OutboxEntry put(Kind kind, String url, String body) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        try (Cursor cursor = db.query(VoyageDatabaseHelper.TABLE_OUTBOX, null,
+                VoyageDatabaseHelper.COLUMN_KIND + " = ? AND "
+                        + VoyageDatabaseHelper.COLUMN_URL + " = ? AND "
+                        + VoyageDatabaseHelper.COLUMN_BODY + " = ?",
+                new String[]{kind.name(), url, body},
+                null, null, null)) {
+
+            if (cursor.moveToFirst()) {
+                OutboxEntry entry = entryOf(cursor);
+                if (!isExpired(entry)) {
+                    return entry;
+                }
+            }
+        }
+
+        OutboxEntry entry = new OutboxEntry(UUID.randomUUID().toString(), kind, url, body,
+                System.currentTimeMillis(), 0);
+        ContentValues values = new ContentValues();
+        values.put(VoyageDatabaseHelper.COLUMN_IDEMPOTENCY_KEY, entry.getKey());
+        values.put(VoyageDatabaseHelper.COLUMN_KIND, kind.name());
+        values.put(VoyageDatabaseHelper.COLUMN_URL, url);
+        values.put(VoyageDatabaseHelper.COLUMN_BODY, body);
+        values.put(VoyageDatabaseHelper.COLUMN_CREATED_AT, entry.getCreatedAt());
+        values.put(VoyageDatabaseHelper.COLUMN_ATTEMPTS, 0);
+        db.insertOrThrow(VoyageDatabaseHelper.TABLE_OUTBOX, null, values);
+        return entry;
+    }
+
+    private synchronized List<OutboxEntry> getPending() {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        List<OutboxEntry> entries = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+        try (Cursor cursor = db.query(VoyageDatabaseHelper.TABLE_OUTBOX, null, null, null,
+                null, null, VoyageDatabaseHelper.COLUMN_CREATED_AT)) {
+
+            while (cursor.moveToNext()) {
+                OutboxEntry entry = entryOf(cursor);
+                if (isExpired(entry) || entry.getAttempts() >= MAX_ATTEMPTS) {
+                    dropped.add(entry.getKey());
+                } else {
+                    entries.add(entry);
+                }
+            }
+        }
+        for (String key : dropped) {
+            Log.d(LOG_TAG, "Dropping outbox entry " + key);
+            db.delete(VoyageDatabaseHelper.TABLE_OUTBOX,
+                    VoyageDatabaseHelper.COLUMN_IDEMPOTENCY_KEY + " = ?", new String[]{key});
+        }
+        return entries;
+    }
+
+    private static boolean isExpired(OutboxEntry entry) {
+        return System.currentTimeMillis() - entry.getCreatedAt() > MAX_AGE_MILLIS;
+    }
+
+    private static OutboxEntry entryOf(Cursor cursor) {
+        return new OutboxEntry(
+                cursor.getString(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_IDEMPOTENCY_KEY)),
+                Kind.valueOf(cursor.getString(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_KIND))),
+                cursor.getString(cursor.getColumnIndexOrThrow(VoyageDatabaseHelper.COLUMN_URL)),
+                cursor.getString(cursor.getColumnIndexOrThrow(VoyageDatabaseHelper.COLUMN_BODY)),
+                cursor.getLong(cursor.getColumnIndexOrThrow(
+                        VoyageDatabaseHelper.COLUMN_CREATED_AT)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(VoyageDatabaseHelper.COLUMN_ATTEMPTS)));
+    }
+
+    private void runOnDisk(Runnable action, String what) {
+        Disposable disposable = Completable.fromRunnable(action)
+                .subscribeOn(serial)
+                .subscribe(() -> {
+                }, throwable -> Log.e(LOG_TAG, "Could not " + what + " outbox entry",
+                        throwable));
+    }
+}
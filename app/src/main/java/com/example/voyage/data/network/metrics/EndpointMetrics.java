@@ -0,0 +1,113 @@
+package com.example.voyage.data.network.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything recorded for one endpoint template.
+ */
+public class EndpointMetrics {
+
+    private final String endpoint;
+
+    private final LatencyHistogram dns = new LatencyHistogram();
+    private final LatencyHistogram connect = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    // Retries that were wanted but not made because the retry budget was spent
+    private final AtomicLong retriesDenied = new AtomicLong();
+
+    // Status code to count, kept sorted for the dump
+    private final Map<Integer, Long> statusCounts = new TreeMap<>();
+
+    EndpointMetrics(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public LatencyHistogram getDns() {
+        return dns;
+    }
+
+    public LatencyHistogram getConnect() {
+        return connect;
+    }
+
+    public LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+
+    public LatencyHistogram getTotal() {
+        return total;
+    }
+
+    public long getRequestBytes() {
+        return requestBytes.get();
+    }
+
+    public long getResponseBytes() {
+        return responseBytes.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getRetriesDenied() {
+        return retriesDenied.get();
+    }
+
+    public synchronized Map<Integer, Long> getStatusCounts() {
+        return new TreeMap<>(statusCounts);
+    }
+
+    void addRequestBytes(long bytes) {
+        requestBytes.addAndGet(bytes);
+    }
+
+    void addResponseBytes(long bytes) {
+        responseBytes.addAndGet(bytes);
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    void recordRetryDenied() {
+        retriesDenied.incrementAndGet();
+    }
+
+    synchronized void recordStatus(int code) {
+        Long count = statusCounts.get(code);
+        statusCounts.put(code, count == null ? 1 : count + 1);
+    }
+
+    @Override
+    public String toString() {
+        return endpoint
+                + "\n  total " + total
+                + "\n  dns " + dns
+                + "\n  connect " + connect
+                + "\n  ttfb " + timeToFirstByte
+                + "\n  bytes sent=" + requestBytes.get() + " received=" + responseBytes.get()
+                + "\n  status " + getStatusCounts() + " failures=" + failures.get()
+                + "\n  retries " + retries.get() + " denied=" + retriesDenied.get();
+    }
+}
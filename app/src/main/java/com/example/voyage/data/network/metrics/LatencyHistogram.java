@@ -0,0 +1,65 @@
+package com.example.voyage.data.network.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies into fixed millisecond buckets. Recording is lock free so it can be called
+ * from OkHttp threads, percentiles are reported as the upper bound of their bucket.
+ */
+public class LatencyHistogram {
+
+    static final long[] BUCKET_BOUNDS_MILLIS =
+            {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, Long.MAX_VALUE};
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+
+    public void record(long millis) {
+        int bucket = 0;
+        while (millis > BUCKET_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMillis.addAndGet(millis);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMillis.get() / n;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, -1 for the open last bucket.
+     */
+    public long percentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100d);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS_MILLIS.length; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                long bound = BUCKET_BOUNDS_MILLIS[bucket];
+                return bound == Long.MAX_VALUE ? -1 : bound;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH, "n=%d mean=%dms p50<=%dms p90<=%dms p99<=%dms",
+                getCount(), getMeanMillis(),
+                percentileMillis(50), percentileMillis(90), percentileMillis(99));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.voyage.data.network.metrics;
+
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-app registry of network metrics, keyed by VoyageService endpoint template such as
+ * {@code seat/{busId}}. Filled by the metrics interceptor and event listener of the http
+ * client, read with {@link #dumpToLogcat()} or {@link #dumpToFile(File)}.
+ *
+ * @see com.example.voyage.data.network.retrofit.VoyageService
+ */
+public class MetricsRegistry {
+    private static final String LOG_TAG = MetricsRegistry.class.getSimpleName();
+    private static MetricsRegistry instance;
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    // Not reset by clear(), the prefetch budget is measured as its growth
+    private final AtomicLong prefetchBytes = new AtomicLong();
+
+    private MetricsRegistry() {
+    }
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    public EndpointMetrics endpoint(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            EndpointMetrics created = new EndpointMetrics(endpoint);
+            metrics = endpoints.putIfAbsent(endpoint, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    public void recordDns(String endpoint, long millis) {
+        endpoint(endpoint).getDns().record(millis);
+    }
+
+    public void recordConnect(String endpoint, long millis) {
+        endpoint(endpoint).getConnect().record(millis);
+    }
+
+    public void recordTimeToFirstByte(String endpoint, long millis) {
+        endpoint(endpoint).getTimeToFirstByte().record(millis);
+    }
+
+    public void recordRequestBytes(String endpoint, long bytes) {
+        endpoint(endpoint).addRequestBytes(bytes);
+    }
+
+    public void recordResponseBytes(String endpoint, long bytes) {
+        endpoint(endpoint).addResponseBytes(bytes);
+    }
+
+    public void recordPrefetchBytes(long bytes) {
+        prefetchBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Bytes sent and received by prefetch calls since the app started, headers included.
+     */
+    public long getPrefetchBytes() {
+        return prefetchBytes.get();
+    }
+
+    public void recordResponse(String endpoint, int code, long totalMillis) {
+        EndpointMetrics metrics = endpoint(endpoint);
+        metrics.recordStatus(code);
+        metrics.getTotal().record(totalMillis);
+    }
+
+    public void recordFailure(String endpoint, long totalMillis) {
+        EndpointMetrics metrics = endpoint(endpoint);
+        metrics.recordFailure();
+        metrics.getTotal().record(totalMillis);
+    }
+
+    public void recordRetry(String endpoint) {
+        endpoint(endpoint).recordRetry();
+    }
+
+    public void recordRetryDenied(String endpoint) {
+        endpoint(endpoint).recordRetryDenied();
+    }
+
+    public List<EndpointMetrics> snapshot() {
+        List<EndpointMetrics> metrics = new ArrayList<>(endpoints.values());
+        Collections.sort(metrics, (a, b) -> a.getEndpoint().compareTo(b.getEndpoint()));
+        return metrics;
+    }
+
+    public void clear() {
+        endpoints.clear();
+    }
+
+    public String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (EndpointMetrics metrics : snapshot()) {
+            builder.append(metrics).append('\n');
+        }
+        return builder.toString();
+    }
+
+    public void dumpToLogcat() {
+        for (EndpointMetrics metrics : snapshot()) {
+            Log.i(LOG_TAG, metrics.toString());
+        }
+    }
+
+    @WorkerThread
+    public void dumpToFile(File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(dump());
+        }
+    }
+}
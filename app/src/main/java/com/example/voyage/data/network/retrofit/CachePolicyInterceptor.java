@@ -0,0 +1,32 @@
+package com.example.voyage.data.network.retrofit;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that rewrites the Cache-Control of responses according to
+ * {@link HttpCachePolicy}. ETag and Last-Modified from the server are left untouched so
+ * OkHttp can revalidate stale entries with If-None-Match / If-Modified-Since.
+ */
+public class CachePolicyInterceptor implements Interceptor {
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        String cacheControl = "GET".equals(request.method())
+                ? HttpCachePolicy.forEndpoint(Endpoints.templateOf(request))
+                : HttpCachePolicy.NO_STORE;
+
+        return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", cacheControl)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.voyage.data.network.retrofit;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Application interceptor that counts how each response was served by the http cache. When
+ * a conditional request comes back 304 and the parsed body is still held in memory, the
+ * cached body is dropped and the response is flagged and carries the parsed one for the
+ * repository to reuse.
+ */
+public class ConditionalCacheInterceptor implements Interceptor {
+
+    private final HttpCacheStats stats;
+    private final ParsedBodyCache parsedBodyCache;
+
+    ConditionalCacheInterceptor(HttpCacheStats stats, ParsedBodyCache parsedBodyCache) {
+        this.stats = stats;
+        this.parsedBodyCache = parsedBodyCache;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        Response response = chain.proceed(request);
+
+        Response networkResponse = response.networkResponse();
+        if (response.cacheResponse() == null) {
+            stats.recordMiss();
+            return response;
+        }
+        if (networkResponse == null) {
+            stats.recordHit();
+            return response;
+        }
+        if (networkResponse.code() != 304) {
+            stats.recordMiss();
+            return response;
+        }
+
+        stats.recordRevalidated();
+        Object parsedBody = parsedBodyCache.get(request);
+        if (parsedBody == null || response.body() == null) {
+            return response;
+        }
+
+        response.body().close();
+        // The parsed body travels with the response, evicting it from the cache meanwhile can
+        // not lose it
+        return response.newBuilder()
+                .request(request.newBuilder()
+                        .tag(ParsedBodyCache.Revalidated.class,
+                                new ParsedBodyCache.Revalidated(parsedBody))
+                        .build())
+                .header(ParsedBodyCache.NOT_MODIFIED_HEADER, "true")
+                .body(ResponseBody.create(ParsedBodyCache.NOT_MODIFIED_TYPE, new byte[0]))
+                .build();
+    }
+}
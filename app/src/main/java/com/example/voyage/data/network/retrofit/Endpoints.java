@@ -0,0 +1,42 @@
+package com.example.voyage.data.network.retrofit;
+
+import java.lang.reflect.Method;
+
+import okhttp3.Request;
+import retrofit2.Invocation;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+
+/**
+ * Resolves the {@link VoyageService} path template a request was made from, e.g.
+ * {@code seat/{busId}} rather than the concrete url.
+ */
+public class Endpoints {
+
+    public static String templateOf(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        if (invocation == null) {
+            return request.url().encodedPath();
+        }
+
+        Method method = invocation.method();
+        GET get = method.getAnnotation(GET.class);
+        if (get != null && !get.value().isEmpty()) {
+            return get.value();
+        }
+        POST post = method.getAnnotation(POST.class);
+        if (post != null && !post.value().isEmpty()) {
+            return post.value();
+        }
+        // @Url endpoints such as pay have no template, name them after the service method
+        return method.getName();
+    }
+
+    /**
+     * Whether the request was made from a {@link Prefetch} method.
+     */
+    public static boolean isPrefetch(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && invocation.method().isAnnotationPresent(Prefetch.class);
+    }
+}
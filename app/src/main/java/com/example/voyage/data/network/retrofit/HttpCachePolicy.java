@@ -0,0 +1,29 @@
+package com.example.voyage.data.network.retrofit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache-Control values applied to responses per endpoint template. Endpoints that are not
+ * listed are never stored.
+ */
+class HttpCachePolicy {
+    static final String NO_STORE = "no-store";
+
+    private static final Map<String, String> POLICIES = new HashMap<>();
+
+    static {
+        // Routes change rarely
+        POLICIES.put("schedule", "private, max-age=21600");
+        // Seats are sold all the time, keep them briefly and revalidate afterwards
+        POLICIES.put("seat/{busId}", "private, max-age=15");
+        // Always revalidate, the etag still saves the body download
+        POLICIES.put("bookings", "private, no-cache");
+        POLICIES.put("user", "private, no-cache");
+    }
+
+    static String forEndpoint(String template) {
+        String policy = POLICIES.get(template);
+        return policy != null ? policy : NO_STORE;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.voyage.data.network.retrofit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HttpCacheStats {
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong revalidatedCount = new AtomicLong();
+
+    void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    void recordRevalidated() {
+        revalidatedCount.incrementAndGet();
+    }
+
+    /**
+     * Served from disk without touching the network.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Full body downloaded, including conditional requests the server answered with 200.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Conditional requests answered with 304 Not Modified.
+     */
+    public long getRevalidatedCount() {
+        return revalidatedCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hitCount.get()
+                + " misses=" + missCount.get()
+                + " revalidated=" + revalidatedCount.get();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.voyage.data.network.retrofit;
+
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Times the phases an interceptor cannot see: dns lookup, connecting (including tls) and the
+ * wait for the first response byte, and counts the header and body bytes actually sent and
+ * received.
+ * One listener is created per call.
+ */
+class NetworkMetricsEventListener extends EventListener {
+
+    private final MetricsRegistry metricsRegistry;
+    private final String endpoint;
+    private final boolean prefetch;
+
+    private long dnsStart;
+    private long connectStart;
+    private long requestStart;
+
+    private NetworkMetricsEventListener(MetricsRegistry metricsRegistry, String endpoint,
+                                        boolean prefetch) {
+        this.metricsRegistry = metricsRegistry;
+        this.endpoint = endpoint;
+        this.prefetch = prefetch;
+    }
+
+    static EventListener.Factory factory(MetricsRegistry metricsRegistry) {
+        return call -> new NetworkMetricsEventListener(metricsRegistry,
+                Endpoints.templateOf(call.request()), Endpoints.isPrefetch(call.request()));
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        metricsRegistry.recordDns(endpoint, elapsedMillis(dnsStart));
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                           Protocol protocol) {
+        metricsRegistry.recordConnect(endpoint, elapsedMillis(connectStart));
+    }
+
+    @Override
+    public void connectFailed(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                              Protocol protocol, IOException ioe) {
+        metricsRegistry.recordConnect(endpoint, elapsedMillis(connectStart));
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(Call call, Request request) {
+        recordRequestBytes(request.headers().byteCount());
+    }
+
+    @Override
+    public void requestBodyEnd(Call call, long byteCount) {
+        recordRequestBytes(byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        metricsRegistry.recordTimeToFirstByte(endpoint, elapsedMillis(requestStart));
+    }
+
+    @Override
+    public void responseHeadersEnd(Call call, Response response) {
+        recordResponseBytes(response.headers().byteCount());
+    }
+
+    @Override
+    public void responseBodyEnd(Call call, long byteCount) {
+        recordResponseBytes(byteCount);
+    }
+
+    private void recordRequestBytes(long bytes) {
+        metricsRegistry.recordRequestBytes(endpoint, bytes);
+        if (prefetch) {
+            metricsRegistry.recordPrefetchBytes(bytes);
+        }
+    }
+
+    private void recordResponseBytes(long bytes) {
+        metricsRegistry.recordResponseBytes(endpoint, bytes);
+        if (prefetch) {
+            metricsRegistry.recordPrefetchBytes(bytes);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
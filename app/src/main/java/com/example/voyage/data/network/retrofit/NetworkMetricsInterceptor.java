@@ -0,0 +1,46 @@
+package com.example.voyage.data.network.retrofit;
+
+import androidx.annotation.NonNull;
+
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Records total time and status code of every call per endpoint template. Runs as an
+ * application interceptor so responses served from the http cache are counted as well.
+ */
+public class NetworkMetricsInterceptor implements Interceptor {
+
+    private final MetricsRegistry metricsRegistry;
+
+    NetworkMetricsInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = Endpoints.templateOf(request);
+        long start = System.nanoTime();
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            metricsRegistry.recordFailure(endpoint, elapsedMillis(start));
+            throw e;
+        }
+        metricsRegistry.recordResponse(endpoint, response.code(), elapsedMillis(start));
+        return response;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.voyage.data.network.retrofit;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Skips conversion of the placeholder bodies {@link ConditionalCacheInterceptor} leaves on
+ * revalidated responses, recognised by their media type, and delegates everything else, empty
+ * bodies included, to the next converter.
+ */
+class NotModifiedConverterFactory extends Converter.Factory {
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        Converter<ResponseBody, ?> delegate =
+                retrofit.nextResponseBodyConverter(this, type, annotations);
+
+        return body -> {
+            if (ParsedBodyCache.NOT_MODIFIED_TYPE.equals(body.contentType())) {
+                body.close();
+                return null;
+            }
+            return delegate.convert(body);
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.voyage.data.network.retrofit;
+
+import android.util.LruCache;
+
+import okhttp3.MediaType;
+import okhttp3.Request;
+import retrofit2.Response;
+
+/**
+ * Keeps the last parsed body per request so a 304 revalidation can hand it back without the
+ * cached json being converted again.
+ */
+public class ParsedBodyCache {
+    static final String NOT_MODIFIED_HEADER = "X-Voyage-Not-Modified";
+    // Marks the empty body left on a flagged response, which is not converted
+    static final MediaType NOT_MODIFIED_TYPE =
+            MediaType.parse("application/vnd.voyage.not-modified");
+
+    private static final int MAX_ENTRIES = 32;
+
+    private final LruCache<String, Object> bodies = new LruCache<>(MAX_ENTRIES);
+
+    /**
+     * The parsed body carried by a flagged response, as a request tag.
+     */
+    static final class Revalidated {
+        final Object body;
+
+        Revalidated(Object body) {
+            this.body = body;
+        }
+    }
+
+    Object get(Request request) {
+        return bodies.get(keyOf(request));
+    }
+
+    /**
+     * Returns the body of a successful response. For a response the server answered with
+     * 304 this is the body parsed on an earlier call, otherwise the fresh body is remembered.
+     * Null when the response has no body, callers treat that as a failed call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T bodyOf(Response<T> response) {
+        Request request = response.raw().request();
+        String key = keyOf(request);
+        if (response.headers().get(NOT_MODIFIED_HEADER) != null) {
+            Revalidated revalidated = request.tag(Revalidated.class);
+            if (revalidated == null) {
+                return null;
+            }
+            bodies.put(key, revalidated.body);
+            return (T) revalidated.body;
+        }
+
+        T body = response.body();
+        if (body != null) {
+            bodies.put(key, body);
+        }
+        return body;
+    }
+
+    public void clear() {
+        bodies.evictAll();
+    }
+
+    private static String keyOf(Request request) {
+        return request.url() + "|" + request.header("Authorization");
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.voyage.data.network.retrofit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link VoyageService} method as a speculative load. The bytes its calls send and
+ * receive are counted in
+ * {@link com.example.voyage.data.network.metrics.MetricsRegistry#getPrefetchBytes()}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Prefetch {
+}
@@ -0,0 +1,143 @@
+package com.example.voyage.data.network.retrofit;
+
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+import com.example.voyage.util.SchedulerProvider;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleTransformer;
+import retrofit2.Response;
+
+/**
+ * Retries idempotent calls that failed on the network or with a transient status, waiting a
+ * capped exponential backoff with full jitter between attempts.
+ * <p>
+ * Retries are paid from one budget shared by every endpoint. Each retry costs a token and each
+ * call that goes through earns back a fraction of one, so when the server or the network is
+ * down retries stop after a few instead of multiplying the load.
+ * <p>
+ * Only apply it to calls that are safe to send twice, never to pickSeat or pay.
+ */
+public class RetryPolicy {
+    private static final String LOG_TAG = RetryPolicy.class.getSimpleName();
+
+    private static final int MAX_RETRIES = 3;
+    private static final long BASE_DELAY_MILLIS = 500;
+    private static final long MAX_DELAY_MILLIS = 8000;
+
+    private static final double MAX_TOKENS = 10;
+    private static final double TOKENS_PER_SUCCESS = 0.1;
+
+    private static RetryPolicy instance;
+
+    private final MetricsRegistry metricsRegistry;
+    private final Scheduler scheduler;
+    private double tokens = MAX_TOKENS;
+
+    @VisibleForTesting
+    RetryPolicy(MetricsRegistry metricsRegistry, Scheduler scheduler) {
+        this.metricsRegistry = metricsRegistry;
+        this.scheduler = scheduler;
+    }
+
+    public static synchronized RetryPolicy getInstance() {
+        if (instance == null) {
+            instance = new RetryPolicy(MetricsRegistry.getInstance(),
+                    SchedulerProvider.getInstance().computation());
+        }
+        return instance;
+    }
+
+    /**
+     * Retries the call for the endpoint template. When the retries run out the last response
+     * or error is passed on as it was.
+     */
+    public <T> SingleTransformer<Response<T>, Response<T>> retrying(String endpoint) {
+        return upstream -> upstream
+                .flatMap(response -> isTransient(response.code())
+                        ? Single.<Response<T>>error(new TransientResponseException(response))
+                        : Single.just(response))
+                .retryWhen(errors -> {
+                    AtomicInteger attempts = new AtomicInteger();
+                    return errors.flatMap(error -> {
+                        int attempt = attempts.incrementAndGet();
+                        if (!isRetryable(error) || attempt > MAX_RETRIES) {
+                            return Flowable.error(error);
+                        }
+                        if (!tryAcquire()) {
+                            Log.d(LOG_TAG, "Retry budget spent, not retrying " + endpoint);
+                            metricsRegistry.recordRetryDenied(endpoint);
+                            return Flowable.error(error);
+                        }
+                        metricsRegistry.recordRetry(endpoint);
+                        return Flowable.timer(delayMillis(attempt), TimeUnit.MILLISECONDS,
+                                scheduler);
+                    });
+                })
+                .doOnSuccess(response -> release())
+                .onErrorResumeNext(error -> error instanceof TransientResponseException
+                        ? Single.just(((TransientResponseException) error).<T>getResponse())
+                        : Single.error(error));
+    }
+
+    /**
+     * A random delay up to base * 2^(attempt - 1), capped.
+     */
+    @VisibleForTesting
+    static long delayMillis(int attempt) {
+        long ceiling = Math.min(MAX_DELAY_MILLIS, BASE_DELAY_MILLIS << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Whether a response with the status may succeed if the same request is sent again.
+     */
+    public static boolean isTransient(int code) {
+        return code == 408 || code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return error instanceof IOException || error instanceof TransientResponseException;
+    }
+
+    private synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private synchronized void release() {
+        tokens = Math.min(MAX_TOKENS, tokens + TOKENS_PER_SUCCESS);
+    }
+
+    /**
+     * Carries a response with a transient status through the retry, so it can be handed on
+     * unchanged once retrying stops.
+     */
+    private static class TransientResponseException extends Exception {
+
+        private final Response<?> response;
+
+        TransientResponseException(Response<?> response) {
+            super("HTTP " + response.code());
+            this.response = response;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> Response<T> getResponse() {
+            return (Response<T>) response;
+        }
+    }
+}
@@ -1,41 +1,120 @@
 package com.example.voyage.data.network.retrofit;
 
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.example.voyage.BuildConfig;
+import com.example.voyage.data.json.VoyageGson;
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.SchedulerProvider;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava2.RxJava2CallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
 
 public class VoyageClient {
-    private static final String VOYAGE_API_BASE_URL = "https://voyageweb.tk/api/";
+    private static final String LOG_TAG = VoyageClient.class.getSimpleName();
+
+    private static final String HTTP_CACHE_DIRECTORY = "http";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
 
     private static VoyageClient instance;
+    private static String baseUrl = BuildConfig.VOYAGE_API_BASE_URL;
     private VoyageService voyageService;
 
+    private Cache httpCache;
+    private HttpCacheStats httpCacheStats = new HttpCacheStats();
+    private ParsedBodyCache parsedBodyCache = new ParsedBodyCache();
+
     private VoyageClient() {
         final Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(VOYAGE_API_BASE_URL)
+                .baseUrl(baseUrl)
                 .client(okHttpClient())
                 .addCallAdapterFactory(RxJava2CallAdapterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(new NotModifiedConverterFactory())
+                .addConverterFactory(GsonConverterFactory.create(VoyageGson.getInstance()))
                 .build();
 
         voyageService = retrofit.create(VoyageService.class);
     }
 
     private OkHttpClient okHttpClient() {
+        File cacheDirectory = new File(
+                ApplicationContextProvider.getContext().getCacheDir(), HTTP_CACHE_DIRECTORY);
+        httpCache = new Cache(cacheDirectory, HTTP_CACHE_SIZE);
+
         OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        builder.cache(httpCache);
+        builder.eventListenerFactory(NetworkMetricsEventListener.factory(
+                MetricsRegistry.getInstance()));
         builder.addInterceptor(new CustomHeaderInterceptor());
+        builder.addInterceptor(new NetworkMetricsInterceptor(MetricsRegistry.getInstance()));
+        builder.addInterceptor(new ConditionalCacheInterceptor(httpCacheStats, parsedBodyCache));
+        builder.addNetworkInterceptor(new CachePolicyInterceptor());
         return builder.build();
     }
 
-    public static VoyageClient getInstance() {
+    public static synchronized VoyageClient getInstance() {
         if (instance == null) {
             instance = new VoyageClient();
         }
         return instance;
     }
 
+    /**
+     * Points the client at another server, e.g. a local mock server in tests. The old client's
+     * cache is closed and the client is built again for the new url on its next use.
+     */
+    @VisibleForTesting
+    public static synchronized void setBaseUrl(String url) {
+        baseUrl = url;
+        if (instance != null) {
+            try {
+                instance.httpCache.close();
+            } catch (IOException e) {
+                Log.e(LOG_TAG, "Could not close http cache", e);
+            }
+            instance = null;
+        }
+    }
+
+    /**
+     * Builds the client on the disk scheduler, called at process start so Retrofit, OkHttp,
+     * Gson and the cache directory are ready before the first request without being built
+     * on the main thread.
+     */
+    public static void warmUp() {
+        SchedulerProvider.getInstance().disk().scheduleDirect(VoyageClient::getInstance);
+    }
+
     public VoyageService getVoyageService() {
         return voyageService;
     }
+
+    public HttpCacheStats getHttpCacheStats() {
+        return httpCacheStats;
+    }
+
+    public ParsedBodyCache getParsedBodyCache() {
+        return parsedBodyCache;
+    }
+
+    /**
+     * Drops every cached response, used when the user signs out.
+     */
+    public void clearHttpCache() {
+        parsedBodyCache.clear();
+        try {
+            httpCache.evictAll();
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Could not clear http cache", e);
+        }
+    }
 }
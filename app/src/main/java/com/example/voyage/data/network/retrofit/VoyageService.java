@@ -19,10 +19,17 @@ import retrofit2.http.GET;
 import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 import retrofit2.http.Url;
 
 public interface VoyageService {
 
+    // Lets the server recognise a request it has already handled when it is sent again
+    String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    // Response header with the version of the latest seat delta a seat snapshot includes
+    String SEAT_VERSION = "Seat-Version";
+
     @POST("register")
     Observable<Response<VoyageUser>> register(@Body JsonObject object);
 
@@ -42,19 +49,46 @@ public interface VoyageService {
     Observable<Response<List<Trip>>> trips(
             @Header("Authorization") String authorization, @Body JsonObject object);
 
+    /**
+     * The bus's seats. The response carries the version of the latest seat delta it includes
+     * in {@link #SEAT_VERSION}.
+     *
+     * @param cacheControl "no-cache" to revalidate a cached response, null to allow it
+     */
     @GET("seat/{busId}")
     Observable<Response<List<Seat>>> seats(@Header("Authorization") String authToken,
-                                           @Path("busId") int busId);
+                                           @Path("busId") int busId,
+                                           @Header("Cache-Control") String cacheControl);
+
+    /**
+     * {@link #seats} loaded ahead of the rider opening the seat screen, its bytes count
+     * against the prefetch budget.
+     */
+    @Prefetch
+    @GET("seat/{busId}")
+    Observable<Response<List<Seat>>> prefetchSeats(@Header("Authorization") String authToken,
+                                                   @Path("busId") int busId,
+                                                   @Header("Cache-Control") String cacheControl);
 
     @POST("bookingPhase/pickSeat")
     Observable<Response<PayDetails>> pickSeat(@Header("Authorization") String authToken,
+                                              @Header(IDEMPOTENCY_KEY) String idempotencyKey,
                                               @Body PickSeatBody body);
 
+    /**
+     * Bookings created, changed or deleted at or after the cursor, the newest updatedAt the
+     * client holds. The cursor is inclusive since updatedAt only has whole seconds, so the
+     * bookings from that second come back again. Without a cursor every booking is returned.
+     * Each booking carries its id, deleted ones come back with deleted set so the client can
+     * drop them.
+     */
     @GET("bookings")
-    Observable<Response<List<Booking>>> bookings(@Header("Authorization") String authToken);
+    Observable<Response<List<Booking>>> bookings(@Header("Authorization") String authToken,
+                                                 @Query("updated_since") String updatedSince);
 
     @POST
     Observable<Response<String>> pay(@Url String url, @Header("Authorization") String authToken,
+                                     @Header(IDEMPOTENCY_KEY) String idempotencyKey,
                                      @Body PayRequestBody payRequestBody);
 
     @POST("fcmToken")
@@ -0,0 +1,76 @@
+package com.example.voyage.data.repositories;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import com.example.voyage.data.local.CacheEntry;
+import com.example.voyage.data.local.VoyageCache;
+import com.example.voyage.data.models.DayFare;
+
+import java.util.List;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+/**
+ * Lowest fares of a route over a window of dates. The dates are searched in parallel, a few at
+ * a time, and each day is emitted as soon as its search finishes rather than after the slowest.
+ * <p>
+ * Fares are kept in memory per route and date for as long as cached trips are fresh, and the
+ * searches go through {@link VoyageRepository#fetchTrips}, so they share its disk cache and any
+ * search for the same date already in flight.
+ */
+public class FareCalendar {
+    private static final String LOG_TAG = FareCalendar.class.getSimpleName();
+
+    // Below the network pool size so a calendar never holds every http thread
+    private static final int MAX_CONCURRENT_DATES = 3;
+    private static final int MAX_CACHED_DAYS = 120;
+
+    private static FareCalendar instance;
+
+    private final VoyageRepository voyageRepository;
+    private final VoyageCache voyageCache;
+    private final LruCache<String, CacheEntry<DayFare>> fares = new LruCache<>(MAX_CACHED_DAYS);
+
+    private FareCalendar() {
+        voyageRepository = VoyageRepository.getInstance();
+        voyageCache = VoyageCache.getInstance();
+    }
+
+    public static synchronized FareCalendar getInstance() {
+        if (instance == null) {
+            instance = new FareCalendar();
+        }
+        return instance;
+    }
+
+    /**
+     * Emits one fare per date, in the order the searches finish. A date whose search fails is
+     * emitted as {@link DayFare#failed} so the other dates still arrive. Disposing cancels the
+     * searches still running and the ones not started yet.
+     *
+     * @param dates dates as the api takes them, yyyy-MM-dd
+     */
+    public Observable<DayFare> load(String origin, String destination, List<String> dates) {
+        return Observable.fromIterable(dates)
+                .flatMap(date -> fareOf(origin, destination, date).toObservable(),
+                        MAX_CONCURRENT_DATES);
+    }
+
+    private Single<DayFare> fareOf(String origin, String destination, String date) {
+        String key = origin + "|" + destination + "|" + date;
+        CacheEntry<DayFare> cached = fares.get(key);
+        if (cached != null && !voyageCache.isStale(VoyageCache.Entity.TRIPS, cached)) {
+            return Single.just(cached.getData());
+        }
+        return voyageRepository.fetchTrips(origin, destination, date)
+                .map(trips -> DayFare.of(date, trips))
+                .doOnSuccess(fare ->
+                        fares.put(key, new CacheEntry<>(fare, System.currentTimeMillis())))
+                .onErrorReturn(throwable -> {
+                    Log.d(LOG_TAG, "No fare for " + date + ": " + throwable.getMessage());
+                    return DayFare.failed(date);
+                });
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.voyage.data.repositories;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.util.Log;
+
+import com.example.voyage.data.local.VoyageOutbox;
+import com.example.voyage.util.SchedulerProvider;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Replays the outbox whenever a network with internet access becomes available, including
+ * right after registering when the device is already online.
+ */
+public class OutboxSync {
+    private static final String LOG_TAG = OutboxSync.class.getSimpleName();
+
+    public static void register(Context context) {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return;
+        }
+        NetworkRequest networkRequest = new NetworkRequest.Builder()
+                .addCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+                .build();
+        connectivityManager.registerNetworkCallback(networkRequest,
+                new ConnectivityManager.NetworkCallback() {
+                    @Override
+                    public void onAvailable(Network network) {
+                        replay();
+                    }
+                });
+    }
+
+    /**
+     * Only touches the repository, and with it the http client, when something is queued.
+     */
+    private static void replay() {
+        Disposable disposable = VoyageOutbox.getInstance().pending()
+                .observeOn(SchedulerProvider.getInstance().ui())
+                .subscribe(entries -> {
+                    if (!entries.isEmpty()) {
+                        VoyageRepository.getInstance().replayOutbox(entries);
+                    }
+                }, throwable -> Log.e(LOG_TAG, "Could not read the outbox", throwable));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.voyage.data.repositories;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Results of a repository query keyed by its parameters, e.g. a trip search or a bus id, so two
+ * screens or a prefetch asking different questions never overwrite each other's result.
+ * The least recently used keys are dropped once the store is full, except keys a screen still
+ * observes, so a result that arrives for one always reaches the LiveData that screen holds.
+ */
+public class QueryStore<K, T> {
+
+    private final int maxKeys;
+    // In access order, least recently used first
+    private final LinkedHashMap<K, MutableLiveData<Resource<T>>> results =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    public QueryStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * The result for the key, created empty if the key is new.
+     */
+    @MainThread
+    public LiveData<Resource<T>> get(K key) {
+        return liveData(key);
+    }
+
+    /**
+     * The result for the key if it is still in the store, without creating one.
+     */
+    @MainThread
+    @Nullable
+    public LiveData<Resource<T>> peek(K key) {
+        return results.get(key);
+    }
+
+    /**
+     * Last data loaded for the key, or null if there is none.
+     */
+    @MainThread
+    @Nullable
+    public T getData(K key) {
+        MutableLiveData<Resource<T>> liveData = results.get(key);
+        if (liveData == null || liveData.getValue() == null) {
+            return null;
+        }
+        return liveData.getValue().getData();
+    }
+
+    @MainThread
+    public void setLoading(K key) {
+        liveData(key).setValue(Resource.loading(getData(key)));
+    }
+
+    @MainThread
+    public void setLoading(K key, T data) {
+        liveData(key).setValue(Resource.loading(data));
+    }
+
+    @MainThread
+    public void setSuccess(K key, T data) {
+        liveData(key).setValue(Resource.success(data));
+    }
+
+    @MainThread
+    public void setError(K key, Throwable error) {
+        liveData(key).setValue(Resource.error(error, getData(key)));
+    }
+
+    @MainThread
+    public void clear() {
+        results.clear();
+    }
+
+    private MutableLiveData<Resource<T>> liveData(K key) {
+        MutableLiveData<Resource<T>> liveData = results.get(key);
+        if (liveData == null) {
+            liveData = new MutableLiveData<>();
+            results.put(key, liveData);
+            trim();
+        }
+        return liveData;
+    }
+
+    /**
+     * Drops the least recently used keys over the limit. Observed keys are kept even if that
+     * leaves the store over it for a while.
+     */
+    private void trim() {
+        Iterator<MutableLiveData<Resource<T>>> iterator = results.values().iterator();
+        while (results.size() > maxKeys && iterator.hasNext()) {
+            if (!iterator.next().hasObservers()) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.voyage.data.repositories;
+
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Single;
+
+/**
+ * Shares one upstream call between callers that ask for the same endpoint and arguments
+ * while a previous call for that key is still running.
+ */
+public class RequestCoalescer {
+    private static final String LOG_TAG = RequestCoalescer.class.getSimpleName();
+
+    private final Map<String, Single<?>> inFlight = new HashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * The key is looked up when the returned single is subscribed to, so a caller only joins
+     * a call that is actually in flight. The upstream is cancelled once every caller is gone.
+     */
+    public <T> Single<T> coalesce(String key, Callable<Single<T>> upstream) {
+        return Single.defer(() -> join(key, upstream));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T> Single<T> join(String key, Callable<Single<T>> upstream)
+            throws Exception {
+        requestCount.incrementAndGet();
+
+        Single<T> shared = (Single<T>) inFlight.get(key);
+        if (shared != null) {
+            coalescedCount.incrementAndGet();
+            Log.d(LOG_TAG, "Joined in-flight request " + key
+                    + " (" + coalescedCount.get() + " calls saved)");
+            return shared;
+        }
+
+        Single<?>[] holder = new Single<?>[1];
+        shared = upstream.call()
+                .toObservable()
+                .doFinally(() -> remove(key, holder[0]))
+                .publish()
+                .refCount()
+                .singleOrError();
+        holder[0] = shared;
+        inFlight.put(key, shared);
+        return shared;
+    }
+
+    private synchronized void remove(String key, Single<?> single) {
+        if (inFlight.get(key) == single) {
+            inFlight.remove(key);
+        }
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getUpstreamCount() {
+        return requestCount.get() - coalescedCount.get();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.voyage.data.repositories;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * State of one query. Loading and error states keep the last data that was loaded, so a screen
+ * can keep showing it while refreshing or after a failed refresh.
+ */
+public class Resource<T> {
+
+    public enum Status {
+        LOADING,
+        SUCCESS,
+        ERROR
+    }
+
+    @NonNull
+    private final Status status;
+
+    @Nullable
+    private final T data;
+
+    @Nullable
+    private final Throwable error;
+
+    private Resource(@NonNull Status status, @Nullable T data, @Nullable Throwable error) {
+        this.status = status;
+        this.data = data;
+        this.error = error;
+    }
+
+    public static <T> Resource<T> loading(@Nullable T data) {
+        return new Resource<>(Status.LOADING, data, null);
+    }
+
+    public static <T> Resource<T> success(@Nullable T data) {
+        return new Resource<>(Status.SUCCESS, data, null);
+    }
+
+    public static <T> Resource<T> error(@NonNull Throwable error, @Nullable T data) {
+        return new Resource<>(Status.ERROR, data, error);
+    }
+
+    @NonNull
+    public Status getStatus() {
+        return status;
+    }
+
+    @Nullable
+    public T getData() {
+        return data;
+    }
+
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isLoading() {
+        return status == Status.LOADING;
+    }
+
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+
+    public boolean isError() {
+        return status == Status.ERROR;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.voyage.data.repositories;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.NetworkUtils;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.CompositeDisposable;
+
+/**
+ * Warms the seat maps of the trips a rider is most likely to tap, so the seat screen can open
+ * without waiting on the network. Only runs on unmetered, fast enough networks, and starts no
+ * prefetch once those started in the last {@link #BUDGET_WINDOW_MILLIS} moved
+ * {@link #BUDGET_BYTES}, as counted by the metrics event listener. A large seat map spends
+ * more of the budget than a small one and a response served from the cache spends none.
+ */
+public class SeatPrefetcher {
+    private static final String LOG_TAG = SeatPrefetcher.class.getSimpleName();
+    private static SeatPrefetcher instance;
+
+    public static final int MAX_BUSES = 3;
+
+    static final long BUDGET_BYTES = 256 * 1024;
+    static final long BUDGET_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final VoyageRepository voyageRepository;
+    private final MetricsRegistry metricsRegistry;
+
+    // Start time and prefetch byte total at the start of each prefetch inside the current
+    // budget window, oldest first
+    private final ArrayDeque<long[]> recentRequests = new ArrayDeque<>();
+
+    private SeatPrefetcher(VoyageRepository voyageRepository, MetricsRegistry metricsRegistry) {
+        this.voyageRepository = voyageRepository;
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public static SeatPrefetcher getInstance() {
+        if (instance == null) {
+            instance = new SeatPrefetcher(VoyageRepository.getInstance(),
+                    MetricsRegistry.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Prefetches the seat maps of up to {@link #MAX_BUSES} of the given buses, in order.
+     * The requests are added to the caller's disposables.
+     */
+    @MainThread
+    public void prefetch(List<Integer> busIds, CompositeDisposable disposables) {
+        if (!NetworkUtils.isPrefetchAllowed(ApplicationContextProvider.getContext())) {
+            Log.d(LOG_TAG, "Skipping seat prefetch on this network");
+            return;
+        }
+
+        int started = 0;
+        for (int i = 0; i < busIds.size() && started < MAX_BUSES; i++) {
+            int busId = busIds.get(i);
+            if (voyageRepository.hasSeats(busId)) {
+                continue;
+            }
+            if (!takeFromBudget()) {
+                Log.d(LOG_TAG, "Seat prefetch budget spent");
+                return;
+            }
+            voyageRepository.prefetchSeats(busId, disposables);
+            started++;
+        }
+    }
+
+    private boolean takeFromBudget() {
+        long now = SystemClock.elapsedRealtime();
+        long bytes = metricsRegistry.getPrefetchBytes();
+        while (!recentRequests.isEmpty()
+                && now - recentRequests.peekFirst()[0] > BUDGET_WINDOW_MILLIS) {
+            recentRequests.pollFirst();
+        }
+        // What the prefetches started inside the window have moved so far
+        long spent = recentRequests.isEmpty() ? 0 : bytes - recentRequests.peekFirst()[1];
+        if (spent >= BUDGET_BYTES) {
+            return false;
+        }
+        recentRequests.addLast(new long[]{now, bytes});
+        return true;
+    }
+}
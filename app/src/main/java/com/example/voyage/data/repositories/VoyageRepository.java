@@ -1,58 +1,113 @@
 package com.example.voyage.data.repositories;
 
 import android.util.Log;
+import android.util.LruCache;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.voyage.auth.VoyageAuth;
 import com.example.voyage.auth.VoyageUser;
+import com.example.voyage.data.local.BookingStore;
+import com.example.voyage.data.local.CacheEntry;
+import com.example.voyage.data.local.OutboxEntry;
+import com.example.voyage.data.local.VoyageCache;
+import com.example.voyage.data.local.VoyageOutbox;
 import com.example.voyage.data.models.Booking;
 import com.example.voyage.data.models.PayDetails;
 import com.example.voyage.data.models.PayRequestBody;
 import com.example.voyage.data.models.PickSeatBody;
 import com.example.voyage.data.models.Schedule;
 import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.SeatDelta;
 import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.network.retrofit.ParsedBodyCache;
+import com.example.voyage.data.network.retrofit.RetryPolicy;
 import com.example.voyage.data.network.retrofit.VoyageClient;
 import com.example.voyage.data.network.retrofit.VoyageService;
-import com.example.voyage.ui.pickseat.SeatRowCollection;
+import com.example.voyage.data.seats.SeatLayout;
+import com.example.voyage.data.seats.SeatMap;
 import com.example.voyage.util.NetworkUtils;
+import com.example.voyage.util.SchedulerProvider;
 import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Map;
+import java.util.Set;
 
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
 import io.reactivex.SingleSource;
-import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.SingleTransformer;
+import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Action;
 import io.reactivex.functions.BiFunction;
 import io.reactivex.functions.Function;
-import io.reactivex.functions.Function3;
-import io.reactivex.schedulers.Schedulers;
+import retrofit2.HttpException;
 import retrofit2.Response;
 
 public class VoyageRepository {
     private static final String LOG_TAG = VoyageRepository.class.getSimpleName();
     private static VoyageRepository instance;
 
-    private VoyageService voyageService;
-
-    private MutableLiveData<List<Schedule>> schedules = new MutableLiveData<>();
-    private MutableLiveData<List<Trip>> trips = new MutableLiveData<>();
-    private MutableLiveData<SeatRowCollection> seats = new MutableLiveData<>();
-    private MutableLiveData<PayDetails> payDetails = new MutableLiveData<>();
-    private MutableLiveData<Integer> payStatus = new MutableLiveData<>();
-    private MutableLiveData<List<Booking>> bookings = new MutableLiveData<>();
-
-    private AtomicReference<String> authToken = new AtomicReference<>("");
+    private static final String SCHEDULES_CACHE_KEY = "all";
+    private static final Type SCHEDULE_LIST_TYPE = new TypeToken<List<Schedule>>() {
+    }.getType();
+    private static final Type TRIP_LIST_TYPE = new TypeToken<List<Trip>>() {
+    }.getType();
+
+    private VoyageCache voyageCache;
+    private VoyageOutbox outbox;
+    private BookingStore bookingStore;
+    private RequestCoalescer requestCoalescer = new RequestCoalescer();
+    private SchedulerProvider schedulers = SchedulerProvider.getInstance();
+    private RetryPolicy retryPolicy = RetryPolicy.getInstance();
+
+    private static final int MAX_TRIP_QUERIES = 8;
+    private static final int MAX_SEAT_QUERIES = 8;
+    private static final int MAX_PREFETCHED_SEATS = 8;
+
+    // Results per query, so searches and buses never overwrite each other
+    private QueryStore<String, List<Schedule>> schedules = new QueryStore<>(1);
+    private QueryStore<String, List<Trip>> trips = new QueryStore<>(MAX_TRIP_QUERIES);
+    private QueryStore<Integer, SeatMap> seats = new QueryStore<>(MAX_SEAT_QUERIES);
+    private MutableLiveData<Resource<List<Booking>>> bookings = new MutableLiveData<>();
+
+    // Screens waiting on an outbox entry, by idempotency key, each until its disposables are
+    // cleared. Main thread only
+    private final Map<String, List<MutableLiveData<Resource<PayDetails>>>> pickSeatResults =
+            new HashMap<>();
+    private final Map<String, List<MutableLiveData<Resource<Integer>>>> payResults =
+            new HashMap<>();
+    private final Set<String> sendingKeys = new HashSet<>();
+
+    // Seat deltas, main thread only. The version of the seat map held per bus, the deltas
+    // waiting for a fetch in flight, and buses whose http cached seats predate a delta
+    private final Map<Integer, Long> seatVersions = new HashMap<>();
+    private final Map<Integer, List<SeatDelta>> pendingSeatDeltas = new HashMap<>();
+    private final Set<Integer> seatFetches = new HashSet<>();
+    private final Set<Integer> staleSeatResponses = new HashSet<>();
+
+    // Seat maps loaded ahead of the seat screen and the prefetches in flight, kept out of the
+    // seat store so they take no slot a screen needs. Main thread only
+    private final LruCache<Integer, SeatMap> prefetchedSeats =
+            new LruCache<>(MAX_PREFETCHED_SEATS);
+    private final Set<Integer> seatPrefetches = new HashSet<>();
 
     private VoyageRepository() {
-        voyageService = VoyageClient.getInstance().getVoyageService();
+        voyageCache = VoyageCache.getInstance();
+        outbox = VoyageOutbox.getInstance();
+        bookingStore = BookingStore.getInstance();
     }
 
     public static VoyageRepository getInstance() {
@@ -62,189 +117,543 @@ public class VoyageRepository {
         return instance;
     }
 
-    public LiveData<List<Schedule>> getSchedules() {
+    /**
+     * Loads the schedules into the returned LiveData. The work is added to the caller's
+     * disposables, disposing them stops it and cancels the http call.
+     */
+    public LiveData<Resource<List<Schedule>>> getSchedules(CompositeDisposable disposables) {
+        loadCached(VoyageCache.Entity.SCHEDULES, SCHEDULES_CACHE_KEY, SCHEDULE_LIST_TYPE,
+                schedules, disposables, () -> refreshSchedules(disposables));
+        return schedules.get(SCHEDULES_CACHE_KEY);
+    }
 
-        Disposable disposable = getUserResponseSingle(
-                getSingleSourceFunction(voyageService::schedules))
+    private void refreshSchedules(CompositeDisposable disposables) {
+        disposables.add(requestCoalescer.coalesce("schedule", () ->
+                getUserResponseSingle(getSingleSourceFunction(voyageService()::schedules),
+                        retryPolicy.retrying("schedule")))
                 .subscribe((response) -> {
                     if (response.isSuccessful()) {
-                        schedules.postValue(response.body());
-                    } else {
-                        if (response.code() == 401) {
-                            voyageService.logout(authToken.get());
-                        }
-                        try {
-                            assert response.errorBody() != null;
-                            Log.d(LOG_TAG, "Error: " +
-                                    response.errorBody().string());
-                        } catch (IOException e) {
-                            e.printStackTrace();
+                        List<Schedule> body = parsedBodyCache().bodyOf(response);
+                        if (body == null) {
+                            schedules.setError(SCHEDULES_CACHE_KEY, missingBody(response));
+                            return;
                         }
+                        schedules.setSuccess(SCHEDULES_CACHE_KEY, body);
+                        voyageCache.save(VoyageCache.Entity.SCHEDULES, SCHEDULES_CACHE_KEY, body);
+                    } else {
+                        schedules.setError(SCHEDULES_CACHE_KEY, errorOf(response));
                     }
                 }, throwable -> {
                     NetworkUtils.handleError(throwable);
-                    schedules.setValue(null);
-                });
+                    schedules.setError(SCHEDULES_CACHE_KEY, throwable);
+                }));
+    }
 
-        return schedules;
+    public LiveData<Resource<List<Trip>>> getTrips(String origin, String destination,
+                                                   String date,
+                                                   CompositeDisposable disposables) {
+        String cacheKey = tripsKey(origin, destination, date);
+        loadCached(VoyageCache.Entity.TRIPS, cacheKey, TRIP_LIST_TYPE, trips, disposables,
+                () -> refreshTrips(origin, destination, date, disposables));
+        return trips.get(cacheKey);
     }
 
-    public LiveData<List<Trip>> getTrips(String origin, String destination, String date) {
-        JsonObject jsonObject = new JsonObject();
-        jsonObject.addProperty("departure", origin);
-        jsonObject.addProperty("destination", destination);
-        jsonObject.addProperty("date", date);
+    private void refreshTrips(String origin, String destination, String date,
+                              CompositeDisposable disposables) {
+        String cacheKey = tripsKey(origin, destination, date);
 
-        Disposable d = getUserResponseSingle(
-                getSingleSourceFunctionWithBody(voyageService::trips, jsonObject))
+        disposables.add(tripsCall(origin, destination, date)
                 .subscribe((response) -> {
                     if (response.isSuccessful()) {
-                        trips.postValue(response.body());
+                        trips.setSuccess(cacheKey, response.body());
+                        voyageCache.save(VoyageCache.Entity.TRIPS, cacheKey, response.body());
                     } else {
-                        if (response.code() == 401) {
-                            voyageService.logout(authToken.get());
-                        }
-                        try {
-                            assert response.errorBody() != null;
-                            Log.d(LOG_TAG, "Error: " +
-                                    response.errorBody().string());
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
+                        trips.setError(cacheKey, errorOf(response));
                     }
                 }, throwable -> {
                     NetworkUtils.handleError(throwable);
-                    trips.setValue(null);
-                });
-
+                    trips.setError(cacheKey, throwable);
+                }));
+    }
 
-        return trips;
+    /**
+     * The trips for one date as a single, for callers that fan out over many searches. A fresh
+     * cached result is used without a call, and what is fetched is cached the same way as
+     * {@link #getTrips}, so opening one of the dates afterwards is instant.
+     */
+    public Single<List<Trip>> fetchTrips(String origin, String destination, String date) {
+        String cacheKey = tripsKey(origin, destination, date);
+        return voyageCache.<List<Trip>>load(VoyageCache.Entity.TRIPS, cacheKey, TRIP_LIST_TYPE)
+                .filter(entry -> !voyageCache.isStale(VoyageCache.Entity.TRIPS, entry))
+                .map(CacheEntry::getData)
+                .switchIfEmpty(Single.defer(() -> tripsCall(origin, destination, date))
+                        // The user session is read on the main thread like every other call
+                        .subscribeOn(schedulers.ui())
+                        .flatMap(response -> {
+                            if (!response.isSuccessful()) {
+                                return Single.error(errorOf(response));
+                            }
+                            List<Trip> body = response.body() != null
+                                    ? response.body() : new ArrayList<>();
+                            voyageCache.save(VoyageCache.Entity.TRIPS, cacheKey, body);
+                            return Single.just(body);
+                        }));
     }
 
-    public LiveData<SeatRowCollection> getSeats(int busId) {
+    /**
+     * One trip search, shared with any caller already waiting on the same search.
+     */
+    private Single<Response<List<Trip>>> tripsCall(String origin, String destination,
+                                                   String date) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("departure", origin);
+        jsonObject.addProperty("destination", destination);
+        jsonObject.addProperty("date", date);
 
-        Disposable disposable = getUserResponseSingle(
-                getSingleSourceFunctionWithBody(voyageService::seats, busId))
-                .subscribe((response) -> {
-                    if (response.isSuccessful()) {
-                        assert response.body() != null;
-
-                        // Push seats to row collection
-                        SeatRowCollection rowCollection = new SeatRowCollection();
-                        for (int i = 0; i < response.body().size(); i += 4) {
-                            List<Seat> seatRow = new ArrayList<>(response.body().subList(i, i + 4));
-                            rowCollection.add(seatRow);
-                            seats.setValue(rowCollection);
-                        }
+        return requestCoalescer.coalesce("trip|" + tripsKey(origin, destination, date), () ->
+                getUserResponseSingle(
+                        getSingleSourceFunctionWithBody(voyageService()::trips, jsonObject),
+                        retryPolicy.retrying("trip")));
+    }
 
-                    } else {
-                        if (response.code() == 401) {
-                            voyageService.logout(authToken.get());
-                        }
-                        try {
-                            assert response.errorBody() != null;
-                            Log.d(LOG_TAG, "Error: " +
-                                    response.errorBody().string());
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                    }
+    private static String tripsKey(String origin, String destination, String date) {
+        return origin + "|" + destination + "|" + date;
+    }
+
+    public LiveData<Resource<SeatMap>> getSeats(int busId, CompositeDisposable disposables) {
+        SeatMap prefetched = prefetchedSeats.remove(busId);
+        if (prefetched != null && seats.getData(busId) == null) {
+            // Shown while the seats are fetched again
+            seats.setLoading(busId, prefetched);
+        } else {
+            seats.setLoading(busId);
+        }
+        disposables.add(seatsCall(busId, retryPolicy.retrying("seat/{busId}"))
+                .subscribe(seatMap -> {
                 }, throwable -> {
-                    NetworkUtils.handleError(throwable);
-                    seats.setValue(null);
-                });
+                    if (!(throwable instanceof HttpException)) {
+                        NetworkUtils.handleError(throwable);
+                    }
+                    seats.setError(busId, throwable);
+                }));
 
-        return seats;
+        return seats.get(busId);
     }
 
-    public LiveData<PayDetails> pickSeat(int pickPoint, int dropPoint, int tripId,
-                                         ArrayList<Integer> seats) {
-        PickSeatBody seatBody = new PickSeatBody(pickPoint, dropPoint, tripId, seats);
-
-        Disposable disposable = getUserResponseSingle(
-                getSingleSourceFunctionWithBody(voyageService::pickSeat, seatBody))
+    /**
+     * Loads the bus's seat map ahead of the seat screen, which then shows it straight away
+     * while fetching the seats again. Failures are left for that screen to report.
+     * <p>
+     * Prefetches run on their own low priority thread, are kept apart from the seat store and
+     * have their own coalescing key, so a screen asking for the seats meanwhile makes its own
+     * retried call rather than joining this one.
+     */
+    void prefetchSeats(int busId, CompositeDisposable disposables) {
+        if (hasSeats(busId)) {
+            return;
+        }
+        seatPrefetches.add(busId);
+        String cacheControl = staleSeatResponses.contains(busId) ? "no-cache" : null;
+        // Not retried, a speculative load should not spend the retry budget
+        disposables.add(requestCoalescer.coalesce("seat-prefetch|" + busId, () ->
+                getUserResponseSingle(getSingleSourceFunctionWithBody(
+                        (authToken, id) -> voyageService().prefetchSeats(authToken, id,
+                                cacheControl),
+                        busId, schedulers.prefetch())))
+                .doOnDispose(() -> seatPrefetches.remove(busId))
                 .subscribe((response) -> {
-                    if (response.isSuccessful()) {
-                        payDetails.postValue(response.body());
-                    } else {
-                        if (response.code() == 401) {
-                            voyageService.logout(authToken.get());
-                        }
-                        try {
-                            assert response.errorBody() != null;
-                            Log.d(LOG_TAG, "Error: " +
-                                    response.errorBody().string());
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
+                    // Not kept when a delta arrived meanwhile, it may predate that
+                    if (!seatPrefetches.remove(busId) || !response.isSuccessful()) {
+                        return;
+                    }
+                    List<Seat> body = parsedBodyCache().bodyOf(response);
+                    if (body != null) {
+                        prefetchedSeats.put(busId, SeatMap.fromSeats(body, SeatLayout.TWO_BY_TWO));
                     }
                 }, throwable -> {
-                    NetworkUtils.handleError(throwable);
-                    payDetails.setValue(null);
-                });
+                    seatPrefetches.remove(busId);
+                    Log.d(LOG_TAG, "Seat prefetch failed for bus " + busId);
+                }));
+    }
+
+    boolean hasSeats(int busId) {
+        return seats.getData(busId) != null
+                || prefetchedSeats.get(busId) != null
+                || seatPrefetches.contains(busId);
+    }
+
+    /**
+     * Fetches the bus's seats, shared with a fetch already in flight, and puts the map into
+     * the store once, on the main thread, with the deltas that arrived meanwhile applied.
+     */
+    private Single<SeatMap> seatsCall(
+            int busId, SingleTransformer<Response<List<Seat>>, Response<List<Seat>>> retry) {
+        return requestCoalescer.coalesce("seat|" + busId, () -> {
+            String cacheControl = startSeatFetch(busId);
+            return getUserResponseSingle(getSingleSourceFunctionWithBody(
+                    (authToken, id) -> voyageService().seats(authToken, id, cacheControl),
+                    busId), retry)
+                    .flatMap(response -> {
+                        if (!response.isSuccessful()) {
+                            return Single.<SeatMap>error(errorOf(response));
+                        }
+                        SeatMap seatMap = seatMapOf(busId, response);
+                        return seatMap != null
+                                ? Single.just(seatMap)
+                                : Single.<SeatMap>error(missingBody(response));
+                    })
+                    .doOnSuccess(seatMap -> seats.setSuccess(busId, seatMap))
+                    .doOnError(throwable -> finishSeatFetch(busId))
+                    .doOnDispose(() -> finishSeatFetch(busId));
+        });
+    }
+
+    /**
+     * Marks a seat fetch as started and returns the Cache-Control header to send. Deltas that
+     * arrive from now on wait for the new snapshot. A bus that had deltas since its last
+     * fetch skips the http cache, which may still hold the seats from before them.
+     */
+    private String startSeatFetch(int busId) {
+        seatFetches.add(busId);
+        pendingSeatDeltas.remove(busId);
+        return staleSeatResponses.remove(busId) ? "no-cache" : null;
+    }
+
+    /**
+     * Ends a failed or cancelled seat fetch, the deltas held for it go to the map already
+     * shown, if any.
+     */
+    private void finishSeatFetch(int busId) {
+        seatFetches.remove(busId);
+        List<SeatDelta> pending = pendingSeatDeltas.remove(busId);
+        if (pending != null) {
+            for (SeatDelta delta : pending) {
+                onSeatDelta(delta);
+            }
+        }
+    }
+
+    /**
+     * The seat map of a successful response, null when it has no body. Deltas held during the
+     * fetch that are newer than the snapshot are applied on top of it.
+     */
+    private SeatMap seatMapOf(int busId, Response<List<Seat>> response) {
+        List<Seat> body = parsedBodyCache().bodyOf(response);
+        if (body == null) {
+            return null;
+        }
+        seatFetches.remove(busId);
+        List<SeatDelta> pending = pendingSeatDeltas.remove(busId);
+
+        SeatMap seatMap = SeatMap.fromSeats(body, SeatLayout.TWO_BY_TWO);
+        // Without a version on the snapshot, every delta held during the fetch is taken as
+        // newer, only deltas older than one already applied are skipped
+        Long version = seatVersionOf(response);
+        if (version == null) {
+            version = seatVersions.get(busId);
+        }
+        if (pending != null) {
+            Collections.sort(pending, (a, b) -> Long.compare(a.getVersion(), b.getVersion()));
+            for (SeatDelta delta : pending) {
+                if (version == null || delta.getVersion() > version) {
+                    seatMap = seatMap.withDelta(delta);
+                    version = delta.getVersion();
+                }
+            }
+        }
+        if (version != null) {
+            seatVersions.put(busId, version);
+        }
+
+        // Keep what the rider already picked if this refreshes a map they are looking at
+        SeatMap previous = seats.getData(busId);
+        return previous != null ? seatMap.withSelectionOf(previous) : seatMap;
+    }
+
+    /**
+     * The version of the latest delta the server included in a seat snapshot, null when the
+     * response does not say.
+     */
+    private static Long seatVersionOf(Response<?> response) {
+        String version = response.headers().get(VoyageService.SEAT_VERSION);
+        if (version == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(version.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
+    /**
+     * Applies seat changes pushed over FCM to the bus's seat map, without fetching the seats
+     * again. Deltas arriving while the seats are fetched are held and applied to the new
+     * snapshot. Deltas not newer than the map's version are dropped.
+     */
+    public void applySeatDelta(SeatDelta delta) {
+        schedulers.ui().scheduleDirect(() -> onSeatDelta(delta));
+    }
+
+    private void onSeatDelta(SeatDelta delta) {
+        int busId = delta.getBusId();
+        prefetchedSeats.remove(busId);
+        seatPrefetches.remove(busId);
+        // Whatever the http cache holds for the bus predates this change
+        staleSeatResponses.add(busId);
+        if (seatFetches.contains(busId)) {
+            List<SeatDelta> pending = pendingSeatDeltas.get(busId);
+            if (pending == null) {
+                pending = new ArrayList<>();
+                pendingSeatDeltas.put(busId, pending);
+            }
+            pending.add(delta);
+            return;
+        }
+
+        SeatMap current = seats.getData(busId);
+        if (current == null) {
+            // Nothing to apply it to, the next fetch gets a snapshot that includes it
+            return;
+        }
+        Long applied = seatVersions.get(busId);
+        if (applied != null && delta.getVersion() <= applied) {
+            Log.d(LOG_TAG, "Dropping out of order seat delta " + delta.getVersion()
+                    + " for bus " + busId);
+            return;
+        }
+        seatVersions.put(busId, delta.getVersion());
+        seats.setSuccess(busId, current.withDelta(delta));
+    }
+
+    /**
+     * Reserves the seats. Every call gets its own result, so an earlier reservation can not be
+     * mistaken for this one. The request goes through the outbox, asking for the same seats
+     * again while an earlier attempt is unanswered reuses its idempotency key.
+     */
+    public LiveData<Resource<PayDetails>> pickSeat(int pickPoint, int dropPoint, int tripId,
+                                                   ArrayList<Integer> seats,
+                                                   CompositeDisposable disposables) {
+        PickSeatBody seatBody = new PickSeatBody(pickPoint, dropPoint, tripId, seats);
+        MutableLiveData<Resource<PayDetails>> payDetails = new MutableLiveData<>();
+        payDetails.setValue(Resource.loading(null));
+
+        disposables.add(outbox.enqueue(VoyageOutbox.Kind.PICK_SEAT, null, seatBody)
+                .observeOn(schedulers.ui())
+                .subscribe(entry -> {
+                    awaitResult(pickSeatResults, entry.getKey(), payDetails, disposables);
+                    disposables.add(sendPickSeat(entry, seatBody));
+                }, throwable -> {
+                    Log.e(LOG_TAG, "Could not queue seat reservation", throwable);
+                    payDetails.setValue(Resource.error(throwable, null));
+                }));
 
         return payDetails;
     }
 
-    public LiveData<Integer> pay(String url, String phoneNumber, int tripId, int pickPoint,
-                                 int dropPoint, ArrayList<Integer> intentSeatIds) {
+    private Disposable sendPickSeat(OutboxEntry entry, PickSeatBody seatBody) {
+        return sendQueued(entry, user -> Single.fromObservable(
+                voyageService().pickSeat(bearerOf(user), entry.getKey(), seatBody)
+                        .subscribeOn(schedulers.network())),
+                pickSeatResults, Response::body);
+    }
+
+    /**
+     * The request is not tied to a screen on purpose. Once the payment request is sent it is
+     * left to finish, leaving the pay screen should not abandon a charge half way. Only the
+     * returned status stops being updated once the disposables are cleared. Like
+     * {@link #pickSeat} it goes through the outbox, so paying again after a dropped
+     * connection can not prompt twice.
+     */
+    public LiveData<Resource<Integer>> pay(String url, String phoneNumber, int tripId,
+                                           int pickPoint, int dropPoint,
+                                           ArrayList<Integer> intentSeatIds,
+                                           CompositeDisposable disposables) {
 
         PayRequestBody payRequestBody = new PayRequestBody(phoneNumber,
                 pickPoint, dropPoint, tripId, intentSeatIds);
+        MutableLiveData<Resource<Integer>> payStatus = new MutableLiveData<>();
+        payStatus.setValue(Resource.loading(null));
+
+        Disposable d = outbox.enqueue(VoyageOutbox.Kind.PAY, url, payRequestBody)
+                .observeOn(schedulers.ui())
+                .subscribe(entry -> {
+                    awaitResult(payResults, entry.getKey(), payStatus, disposables);
+                    sendPay(entry, payRequestBody);
+                }, throwable -> {
+                    Log.e(LOG_TAG, "Could not queue payment", throwable);
+                    payStatus.setValue(Resource.error(throwable, null));
+                });
 
-        Disposable d = getUserResponseSingle(
-                getSingleSourceFunctionWithUrl(voyageService::pay, url, payRequestBody))
-                .subscribe((response) -> {
+        return payStatus;
+    }
+
+    private Disposable sendPay(OutboxEntry entry, PayRequestBody payRequestBody) {
+        return sendQueued(entry, user -> Single.fromObservable(
+                voyageService().pay(entry.getUrl(), bearerOf(user), entry.getKey(), payRequestBody)
+                        .subscribeOn(schedulers.network())),
+                payResults, Response::code);
+    }
+
+    /**
+     * Sends the queued requests again, e.g. once connectivity is back. Screens still waiting
+     * on one of them get its result.
+     */
+    public void replayOutbox(List<OutboxEntry> entries) {
+        for (OutboxEntry entry : entries) {
+            Log.d(LOG_TAG, "Replaying " + entry.getKind() + " " + entry.getKey());
+            switch (entry.getKind()) {
+                case PICK_SEAT:
+                    sendPickSeat(entry, outbox.bodyOf(entry, PickSeatBody.class));
+                    break;
+                case PAY:
+                    sendPay(entry, outbox.bodyOf(entry, PayRequestBody.class));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Sends an outbox entry and settles it. A final answer from the server, success or a
+     * client error, removes the entry. A network error or a transient status keeps it for the
+     * next replay, the waiting screens get the error meanwhile so they are not stuck loading.
+     * The attempt is counted first, an entry tried too often is not sent.
+     */
+    private <T, R> Disposable sendQueued(
+            OutboxEntry entry, Function<VoyageUser, SingleSource<? extends Response<T>>> call,
+            Map<String, List<MutableLiveData<Resource<R>>>> results,
+            Function<Response<T>, R> resultOf) {
+        String key = entry.getKey();
+        if (!sendingKeys.add(key)) {
+            // Already on its way, its result reaches the same screens
+            return Disposables.disposed();
+        }
+
+        return outbox.recordAttempt(key)
+                .observeOn(schedulers.ui())
+                .andThen(getUserResponseSingle(call))
+                .doFinally(() -> sendingKeys.remove(key))
+                .subscribe(response -> {
+                    if (RetryPolicy.isTransient(response.code())) {
+                        Log.d(LOG_TAG, "Keeping " + key + " queued after " + response.code());
+                        deliver(results, key, Resource.error(new HttpException(response), null));
+                        return;
+                    }
+                    outbox.remove(key);
                     if (response.isSuccessful()) {
-                        if (response.code() == 200)
-                            payStatus.setValue(0);
+                        deliver(results, key, Resource.success(resultOf.apply(response)));
                     } else {
-                        if (response.code() == 401) {
-                            voyageService.logout(authToken.get());
-                        }
-                        try {
-                            assert response.errorBody() != null;
-                            Log.d(LOG_TAG, "Error: " +
-                                    response.errorBody().string());
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
+                        deliver(results, key, Resource.error(errorOf(response), null));
                     }
+                    results.remove(key);
                 }, throwable -> {
                     NetworkUtils.handleError(throwable);
-                    payStatus.setValue(null);
+                    deliver(results, key, Resource.error(throwable, null));
                 });
+    }
 
-        return payStatus;
+    /**
+     * Hands the entry's results to the screen until its disposables are cleared, so a late
+     * replay does not reach a screen that is gone. Screens reusing the key each get them.
+     */
+    private static <R> void awaitResult(Map<String, List<MutableLiveData<Resource<R>>>> results,
+                                        String key, MutableLiveData<Resource<R>> result,
+                                        CompositeDisposable disposables) {
+        List<MutableLiveData<Resource<R>>> waiting = results.get(key);
+        if (waiting == null) {
+            waiting = new ArrayList<>();
+            results.put(key, waiting);
+        }
+        waiting.add(result);
+        disposables.add(Disposables.fromAction(() -> {
+            List<MutableLiveData<Resource<R>>> current = results.get(key);
+            if (current != null && current.remove(result) && current.isEmpty()) {
+                results.remove(key);
+            }
+        }));
+    }
+
+    private static <R> void deliver(Map<String, List<MutableLiveData<Resource<R>>>> results,
+                                    String key, Resource<R> resource) {
+        List<MutableLiveData<Resource<R>>> waiting = results.get(key);
+        if (waiting == null) {
+            return;
+        }
+        for (MutableLiveData<Resource<R>> result : new ArrayList<>(waiting)) {
+            result.setValue(resource);
+        }
     }
 
-    public LiveData<List<Booking>> getBookings() {
-        Disposable disposable =
-                getUserResponseSingle(getSingleSourceFunction(voyageService::bookings))
-                        .subscribe(response -> {
-                            if (response.isSuccessful()) {
-                                if (response.code() == 200) {
-                                    bookings.setValue(response.body());
-                                }
-                            } else {
-                                if (response.code() == 401) {
-                                    voyageService.logout(authToken.get());
-                                }
-                                try {
-                                    assert response.errorBody() != null;
-                                    Log.d(LOG_TAG, "Error: " +
-                                            response.errorBody().string());
-                                } catch (IOException e) {
-                                    e.printStackTrace();
-                                }
+    private static String bearerOf(VoyageUser user) {
+        return "Bearer ".concat(user.getToken());
+    }
+
+    /**
+     * Shows the bookings stored on disk straight away, then asks the server only for what
+     * changed since the newest one and merges that in.
+     */
+    public LiveData<Resource<List<Booking>>> getBookings(CompositeDisposable disposables) {
+        bookings.setValue(Resource.loading(bookingsOf(bookings.getValue())));
+
+        disposables.add(bookingStore.load()
+                .observeOn(schedulers.ui())
+                .subscribe(stored -> {
+                    if (!stored.isEmpty()) {
+                        bookings.setValue(Resource.loading(stored));
+                    }
+                    syncBookings(disposables);
+                }, throwable -> {
+                    Log.e(LOG_TAG, "Could not read stored bookings", throwable);
+                    syncBookings(disposables);
+                }));
+
+        return bookings;
+    }
+
+    private void syncBookings(CompositeDisposable disposables) {
+        disposables.add(bookingStore.cursor()
+                .observeOn(schedulers.ui())
+                .flatMap(cursor -> getUserResponseSingle(
+                        getSingleSourceFunctionWithBody(voyageService()::bookings,
+                                cursor.isEmpty() ? null : cursor),
+                        retryPolicy.<List<Booking>>retrying("bookings"))
+                        .flatMap(response -> {
+                            if (!response.isSuccessful()) {
+                                return Single.error(errorOf(response));
+                            }
+                            List<Booking> changes = parsedBodyCache().bodyOf(response);
+                            if (changes == null) {
+                                return Single.error(missingBody(response));
                             }
-                        }, throwable -> {
+                            return bookingStore.merge(changes, cursor.isEmpty());
+                        }))
+                .observeOn(schedulers.ui())
+                .subscribe(merged -> bookings.setValue(Resource.success(merged)),
+                        throwable -> {
                             NetworkUtils.handleError(throwable);
-                            bookings.setValue(null);
-                        });
+                            bookings.setValue(Resource.error(throwable,
+                                    bookingsOf(bookings.getValue())));
+                        }));
+    }
 
-        return bookings;
+    private static List<Booking> bookingsOf(Resource<List<Booking>> resource) {
+        return resource != null ? resource.getData() : null;
+    }
+
+    /**
+     * The http client is looked up on first use rather than when the repository is created,
+     * so a screen can get its view model before the client is built in the background.
+     */
+    private VoyageService voyageService() {
+        return VoyageClient.getInstance().getVoyageService();
+    }
+
+    private ParsedBodyCache parsedBodyCache() {
+        return VoyageClient.getInstance().getParsedBodyCache();
+    }
+
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
     }
 
     public void sendFcmToken(String fcmToken) {
@@ -252,14 +661,14 @@ public class VoyageRepository {
         requestBody.addProperty("FcmToken", fcmToken);
 
         Disposable disposable = getUserResponseSingle(
-                getSingleSourceFunctionWithBody(voyageService::sendFcmToken, requestBody))
+                getSingleSourceFunctionWithBody(voyageService()::sendFcmToken, requestBody))
                 .subscribe(response -> {
                     if (response.isSuccessful()) {
                         if (response.code() == 200) {
                             Log.d(LOG_TAG, "FCM sent successfully");
                         } else {
                             if (response.code() == 401) {
-                                voyageService.logout(authToken.get());
+                                VoyageAuth.getInstance().invalidateSession();
                             }
                             try {
                                 assert response.errorBody() != null;
@@ -274,17 +683,49 @@ public class VoyageRepository {
 
     }
 
-    private <T, U> Function<VoyageUser, SingleSource<? extends Response<T>>> getSingleSourceFunctionWithUrl
-            (Function3<String, String, U, Observable<Response<T>>> observableFunction, String url,
-             U requestBody) {
+    /**
+     * Emits the cached value for the key straight away and hands over to the refresh when
+     * there is nothing cached or the cached value is older than the entity's TTL.
+     */
+    private <K, T> void loadCached(VoyageCache.Entity entity, K key, Type type,
+                                   QueryStore<K, T> store, CompositeDisposable disposables,
+                                   Action refresh) {
+        store.setLoading(key);
+        disposables.add(voyageCache.<T>load(entity, key.toString(), type)
+                .observeOn(schedulers.ui())
+                .subscribe(entry -> {
+                    if (voyageCache.isStale(entity, entry)) {
+                        // Show the stale data while it is refreshed
+                        store.setLoading(key, entry.getData());
+                        refresh.run();
+                    } else {
+                        store.setSuccess(key, entry.getData());
+                    }
+                }, throwable -> refresh.run(), refresh));
+    }
 
-        return (user) -> {
-            String authToken = "Bearer ".concat(user.getToken());
-            return Single.fromObservable(
-                    observableFunction.apply(url, authToken, requestBody)
-                            .subscribeOn(Schedulers.io())
-                            .observeOn(AndroidSchedulers.mainThread()));
-        };
+    /**
+     * Logs an unsuccessful response and turns it into the error its result reports. A 401
+     * means the stored session is no longer valid.
+     */
+    private Throwable errorOf(Response<?> response) {
+        if (response.code() == 401) {
+            VoyageAuth.getInstance().invalidateSession();
+        }
+        try {
+            assert response.errorBody() != null;
+            Log.d(LOG_TAG, "Error: " + response.errorBody().string());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new HttpException(response);
+    }
+
+    /**
+     * The error for a successful response that has no body to show.
+     */
+    private static IOException missingBody(Response<?> response) {
+        return new IOException("No body in response from " + response.raw().request().url());
     }
 
     private <T> Function<VoyageUser, SingleSource<? extends Response<T>>> getSingleSourceFunction
@@ -294,34 +735,51 @@ public class VoyageRepository {
             String authToken = "Bearer ".concat(user.getToken());
             return Single.fromObservable(
                     observableFunction.apply(authToken)
-                            .subscribeOn(Schedulers.io())
-                            .observeOn(AndroidSchedulers.mainThread())
-            );
+                            .subscribeOn(schedulers.network()));
         };
     }
 
     private <T, U> Function<VoyageUser, SingleSource<? extends Response<T>>> getSingleSourceFunctionWithBody
             (BiFunction<String, U, Observable<Response<T>>> observableFunction, U data) {
+        return getSingleSourceFunctionWithBody(observableFunction, data, schedulers.network());
+    }
+
+    private <T, U> Function<VoyageUser, SingleSource<? extends Response<T>>> getSingleSourceFunctionWithBody
+            (BiFunction<String, U, Observable<Response<T>>> observableFunction, U data,
+             Scheduler scheduler) {
 
         return (user) -> {
             String authToken = "Bearer ".concat(user.getToken());
             return Single.fromObservable(
                     observableFunction.apply(authToken, data)
-                            .subscribeOn(Schedulers.io())
-                            .observeOn(AndroidSchedulers.mainThread())
-            );
+                            .subscribeOn(scheduler));
         };
     }
 
     private <T> Single<Response<T>> getUserResponseSingle
             (Function<VoyageUser, SingleSource<? extends Response<T>>> voyageUserSingleSourceFunction) {
+        return getUserResponseSingle(voyageUserSingleSourceFunction, single -> single);
+    }
+
+    /**
+     * Like {@link #getUserResponseSingle(Function)} with the call wrapped in the transformer,
+     * e.g. a {@link RetryPolicy}. Retries happen before the hop to the main thread.
+     */
+    private <T> Single<Response<T>> getUserResponseSingle
+            (Function<VoyageUser, SingleSource<? extends Response<T>>> voyageUserSingleSourceFunction,
+             SingleTransformer<Response<T>, Response<T>> transformer) {
 
         Observable<VoyageUser> voyageUser = VoyageAuth.getInstance().currentUser();
+        if (voyageUser == null) {
+            return Single.error(new IllegalStateException("User not logged in"));
+        }
 
+        // The call itself runs on the network pool, the result is handed to LiveData on the
+        // main thread in a single hop
         return Single.fromObservable(voyageUser)
-                .subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .flatMap(voyageUserSingleSourceFunction);
+                .<Response<T>>flatMap(voyageUserSingleSourceFunction)
+                .compose(transformer)
+                .observeOn(schedulers.ui());
     }
 
 
@@ -15,6 +15,8 @@ import androidx.core.app.TaskStackBuilder;
 import com.example.voyage.R;
 import com.example.voyage.auth.VoyageAuth;
 import com.example.voyage.data.Constants;
+import com.example.voyage.data.models.SeatDelta;
+import com.example.voyage.data.repositories.VoyageRepository;
 import com.example.voyage.ui.bookings.RecentBookingActivity;
 import com.example.voyage.util.ApplicationContextProvider;
 import com.example.voyage.util.PreferenceUtilities;
@@ -44,6 +46,17 @@ public class VoyageMessagingService extends FirebaseMessagingService {
     public void onMessageReceived(RemoteMessage remoteMessage) {
         Log.d(LOG_TAG, "From: " + remoteMessage.getFrom());
 
+        // Seat availability changes for a bus someone may be picking seats on
+        if (SeatDelta.isSeatDelta(remoteMessage.getData())) {
+            SeatDelta delta = SeatDelta.fromData(remoteMessage.getData());
+            if (delta != null) {
+                VoyageRepository.getInstance().applySeatDelta(delta);
+            } else {
+                Log.w(LOG_TAG, "Malformed seat delta: " + remoteMessage.getData());
+            }
+            return;
+        }
+
         // Check if message contains a notification payload.
         if (remoteMessage.getNotification() != null) {
             Log.d(LOG_TAG, "Message Notification Body: " + remoteMessage
@@ -51,7 +64,6 @@ public class VoyageMessagingService extends FirebaseMessagingService {
 
             createNotification(remoteMessage);
         }
-
     }
 
     private void createNotification(RemoteMessage remoteMessage) {
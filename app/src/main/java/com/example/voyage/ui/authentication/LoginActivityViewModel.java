@@ -9,9 +9,7 @@ import androidx.lifecycle.ViewModel;
 import com.example.voyage.auth.VoyageAuth;
 import com.example.voyage.auth.VoyageUser;
 
-import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
-import io.reactivex.schedulers.Schedulers;
 
 class LoginActivityViewModel extends ViewModel {
 
@@ -39,8 +37,6 @@ class LoginActivityViewModel extends ViewModel {
     void loginUser(String email, String password) {
         disposables.add(
                 auth.signInWithEmailAndPassword(email, password)
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(voyageUser -> {
                             if (voyageUser != null) {
                                 Log.d(LOG_TAG, "User token: ".concat(voyageUser.getToken()));
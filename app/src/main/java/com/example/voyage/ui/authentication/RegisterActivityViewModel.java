@@ -9,9 +9,7 @@ import androidx.lifecycle.ViewModel;
 import com.example.voyage.auth.VoyageAuth;
 import com.example.voyage.auth.VoyageUser;
 
-import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.CompositeDisposable;
-import io.reactivex.schedulers.Schedulers;
 
 public class RegisterActivityViewModel extends ViewModel {
     private static final String LOG_TAG = RegisterActivityViewModel.class.getSimpleName();
@@ -34,8 +32,6 @@ public class RegisterActivityViewModel extends ViewModel {
                       String passwordConfirm) {
         disposables.add(
                 auth.createUserWithCredentials(firstName, lastName, email, password, passwordConfirm)
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
                         .subscribe((voyageUser) -> {
                             if (voyageUser != null) {
                                 Log.d(LOG_TAG, "User: " + voyageUser.getToken());
@@ -18,6 +18,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voyage.R;
 import com.example.voyage.data.models.Booking;
+import com.example.voyage.data.repositories.Resource;
 
 import java.util.List;
 import java.util.Objects;
@@ -78,22 +79,23 @@ public class RecentBookingActivity extends AppCompatActivity {
 
     }
 
-    private Observer<List<Booking>> bookingsObserver = bookings -> {
-        recyclerView.setVisibility(View.GONE);
-        progressBar.setVisibility(View.VISIBLE);
-
-        if (bookings != null) {
-            adapter.setData(bookings);
-            if (bookings.size() == 0) {
-                noBookingsTextView.setVisibility(View.VISIBLE);
-                recyclerView.setVisibility(View.GONE);
-            } else {
-                noBookingsTextView.setVisibility(View.GONE);
-                recyclerView.setVisibility(View.VISIBLE);
-            }
+    private Observer<Resource<List<Booking>>> bookingsObserver = resource -> {
+        List<Booking> bookings = resource.getData();
+        if (bookings == null) {
+            // Nothing stored yet, wait for the first sync
+            progressBar.setVisibility(resource.isLoading() ? View.VISIBLE : View.GONE);
+            return;
         }
 
-        recyclerView.setVisibility(View.VISIBLE);
+        // Stored bookings are shown while the sync runs
+        adapter.setData(bookings);
+        if (bookings.size() == 0 && !resource.isLoading()) {
+            noBookingsTextView.setVisibility(View.VISIBLE);
+            recyclerView.setVisibility(View.GONE);
+        } else {
+            noBookingsTextView.setVisibility(View.GONE);
+            recyclerView.setVisibility(View.VISIBLE);
+        }
         progressBar.setVisibility(View.GONE);
     };
 }
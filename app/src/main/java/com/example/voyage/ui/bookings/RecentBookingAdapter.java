@@ -1,12 +1,15 @@
 package com.example.voyage.ui.bookings;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voyage.R;
@@ -14,12 +17,13 @@ import com.example.voyage.data.models.Booking;
 
 import java.util.List;
 
-public class RecentBookingAdapter extends RecyclerView.Adapter<RecentBookingAdapter.ItemViewHolder> {
-    private List<Booking> bookings;
+public class RecentBookingAdapter extends ListAdapter<Booking, RecentBookingAdapter.ItemViewHolder> {
     private Context context;
 
     public RecentBookingAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -33,7 +37,7 @@ public class RecentBookingAdapter extends RecyclerView.Adapter<RecentBookingAdap
 
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder itemViewHolder, int i) {
-        Booking data = bookings.get(i);
+        Booking data = getItem(i);
 
         itemViewHolder.destination.setText(data.getDestination());
         itemViewHolder.origin.setText(data.getOrigin());
@@ -42,16 +46,12 @@ public class RecentBookingAdapter extends RecyclerView.Adapter<RecentBookingAdap
     }
 
     @Override
-    public int getItemCount() {
-        if (bookings == null) {
-            return 0;
-        }
-        return bookings.size();
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
     public void setData(List<Booking> bookings) {
-        this.bookings = bookings;
-        notifyDataSetChanged();
+        submitList(bookings);
     }
 
     public class ItemViewHolder extends RecyclerView.ViewHolder {
@@ -68,4 +68,23 @@ public class RecentBookingAdapter extends RecyclerView.Adapter<RecentBookingAdap
             paid = itemView.findViewById(R.id.paid);
         }
     }
+
+    private static final DiffUtil.ItemCallback<Booking> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<Booking>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull Booking oldBooking,
+                                               @NonNull Booking newBooking) {
+                    return oldBooking.getId() == newBooking.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull Booking oldBooking,
+                                                  @NonNull Booking newBooking) {
+                    return TextUtils.equals(oldBooking.getDestination(), newBooking.getDestination())
+                            && TextUtils.equals(oldBooking.getOrigin(), newBooking.getOrigin())
+                            && TextUtils.equals(oldBooking.getDateBooked(), newBooking.getDateBooked())
+                            && TextUtils.equals(oldBooking.getAmount(), newBooking.getAmount())
+                            && TextUtils.equals(oldBooking.getUpdatedAt(), newBooking.getUpdatedAt());
+                }
+            };
 }
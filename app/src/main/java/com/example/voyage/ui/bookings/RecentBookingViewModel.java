@@ -4,18 +4,28 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.voyage.data.models.Booking;
+import com.example.voyage.data.repositories.Resource;
 import com.example.voyage.data.repositories.VoyageRepository;
 
 import java.util.List;
 
+import io.reactivex.disposables.CompositeDisposable;
+
 public class RecentBookingViewModel extends ViewModel {
     private VoyageRepository voyageRepository;
+    private CompositeDisposable disposables = new CompositeDisposable();
 
     public RecentBookingViewModel() {
         voyageRepository = VoyageRepository.getInstance();
     }
 
-    LiveData<List<Booking>> getBookings() {
-        return voyageRepository.getBookings();
+    @Override
+    protected void onCleared() {
+        disposables.dispose();
+        super.onCleared();
+    }
+
+    LiveData<Resource<List<Booking>>> getBookings() {
+        return voyageRepository.getBookings(disposables);
     }
 }
@@ -0,0 +1,105 @@
+package com.example.voyage.ui.farecalendar;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.Window;
+import android.view.WindowManager;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.core.app.NavUtils;
+import androidx.lifecycle.ViewModelProviders;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.voyage.R;
+import com.example.voyage.data.Constants;
+import com.example.voyage.ui.trips.TripsActivity;
+
+import java.util.Objects;
+
+/**
+ * Lowest fare of each day over two weeks for a route. Days fill in as their searches finish,
+ * tapping one opens its trips.
+ */
+public class FareCalendarActivity extends AppCompatActivity
+        implements FareCalendarAdapter.DayClickListener {
+
+    private static final String LOG_TAG = FareCalendarActivity.class.getSimpleName();
+
+    // A week per row
+    private static final int COLUMNS = 7;
+
+    private String intentStringOrigin;
+    private String intentStringDestination;
+
+    private FareCalendarViewModel viewModel;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        requestWindowFeature(Window.FEATURE_NO_TITLE);
+
+        getWindow().setFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN,
+                WindowManager.LayoutParams.FLAG_FULLSCREEN);
+
+        setContentView(R.layout.activity_fare_calendar);
+
+        //add tool bar
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        TextView title = toolbar.findViewById(R.id.toolbar_title);
+
+        setSupportActionBar(toolbar);
+        title.setText(R.string.fare_calendar_title);
+
+        Objects.requireNonNull(getSupportActionBar()).setDisplayShowTitleEnabled(false);
+
+        // back navigation
+        ImageView backButton = findViewById(R.id.fare_calendar_back_button);
+        backButton.setOnClickListener(view -> NavUtils.navigateUpFromSameTask(this));
+
+        // Intent extras
+        Intent intent = getIntent();
+        intentStringOrigin = intent.getStringExtra(Constants.TRIP_PICK_POINT_INTENT_EXTRA);
+        intentStringDestination = intent.getStringExtra(Constants.TRIP_DROP_POINT_INTENT_EXTRA);
+        String startDate = intent.getStringExtra(Constants.TRIP_DATE_INTENT_EXTRA);
+
+        TextView routeLabel = findViewById(R.id.fare_calendar_route_label);
+        routeLabel.setText(getString(R.string.fare_calendar_route, intentStringOrigin,
+                intentStringDestination));
+
+        // Recyclerview
+        RecyclerView recyclerView = findViewById(R.id.recyclerView_fare_calendar);
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setLayoutManager(new GridLayoutManager(this, COLUMNS));
+
+        FareCalendarAdapter adapter = new FareCalendarAdapter(this, this);
+        recyclerView.setAdapter(adapter);
+
+        // Set up view model
+        viewModel = ViewModelProviders.of(this).get(FareCalendarViewModel.class);
+        viewModel.getDays(intentStringOrigin, intentStringDestination, startDate)
+                .observe(this, adapter::setDays);
+    }
+
+    @Override
+    public void onDayClick(FareCalendarDay day) {
+        switch (day.getState()) {
+            case FARE:
+                Intent intent = new Intent(this, TripsActivity.class);
+                intent.putExtra(Constants.TRIP_PICK_POINT_INTENT_EXTRA, intentStringOrigin);
+                intent.putExtra(Constants.TRIP_DROP_POINT_INTENT_EXTRA, intentStringDestination);
+                intent.putExtra(Constants.TRIP_DATE_INTENT_EXTRA, day.getDate());
+                startActivity(intent);
+                break;
+            case FAILED:
+                viewModel.retry(day.getDate());
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.voyage.ui.farecalendar;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.voyage.R;
+
+import java.util.List;
+
+class FareCalendarAdapter extends ListAdapter<FareCalendarDay, FareCalendarAdapter.DayViewHolder> {
+
+    private static final String LOG_TAG = FareCalendarAdapter.class.getSimpleName();
+
+    final private DayClickListener dayClickListener;
+
+    private Context context;
+
+    FareCalendarAdapter(Context context, DayClickListener dayClickListener) {
+        super(DIFF_CALLBACK);
+        this.context = context;
+        this.dayClickListener = dayClickListener;
+    }
+
+    @NonNull
+    @Override
+    public DayViewHolder onCreateViewHolder(@NonNull ViewGroup viewGroup, int i) {
+        View view = LayoutInflater.from(context)
+                .inflate(R.layout.fare_calendar_day_item, viewGroup, false);
+        return new DayViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull DayViewHolder viewHolder, int position) {
+        FareCalendarDay day = getItem(position);
+
+        viewHolder.weekdayTextView.setText(day.getWeekdayLabel());
+        viewHolder.dayTextView.setText(day.getDayLabel());
+        switch (day.getState()) {
+            case FARE:
+                viewHolder.fareTextView.setText(String.valueOf(day.getLowestFare()));
+                break;
+            case NO_TRIPS:
+                viewHolder.fareTextView.setText(R.string.fare_calendar_no_trips);
+                break;
+            case FAILED:
+                viewHolder.fareTextView.setText(R.string.fare_calendar_retry);
+                break;
+            default:
+                viewHolder.fareTextView.setText(R.string.fare_calendar_loading);
+                break;
+        }
+        viewHolder.cardView.setCardBackgroundColor(ContextCompat.getColor(context,
+                day.isCheapest() ? R.color.primary_light : R.color.icons));
+    }
+
+    /**
+     * Diffs the days against the shown ones on a background thread, so a day arriving only
+     * rebinds its own cell.
+     */
+    void setDays(List<FareCalendarDay> days) {
+        submitList(days);
+    }
+
+    public interface DayClickListener {
+        void onDayClick(FareCalendarDay day);
+    }
+
+    public class DayViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        private CardView cardView;
+        private TextView weekdayTextView;
+        private TextView dayTextView;
+        private TextView fareTextView;
+
+        DayViewHolder(View view) {
+            super(view);
+
+            cardView = view.findViewById(R.id.fare_calendar_day_card);
+            weekdayTextView = view.findViewById(R.id.fare_calendar_weekday);
+            dayTextView = view.findViewById(R.id.fare_calendar_day);
+            fareTextView = view.findViewById(R.id.fare_calendar_fare);
+            view.setOnClickListener(this);
+        }
+
+        @Override
+        public void onClick(View v) {
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            dayClickListener.onDayClick(getItem(position));
+        }
+    }
+
+    private static final DiffUtil.ItemCallback<FareCalendarDay> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<FareCalendarDay>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull FareCalendarDay oldDay,
+                                               @NonNull FareCalendarDay newDay) {
+                    return oldDay.getDate().equals(newDay.getDate());
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull FareCalendarDay oldDay,
+                                                  @NonNull FareCalendarDay newDay) {
+                    return oldDay.equals(newDay);
+                }
+            };
+}
@@ -0,0 +1,82 @@
+package com.example.voyage.ui.farecalendar;
+
+import androidx.annotation.NonNull;
+
+/**
+ * One cell of the fare calendar.
+ */
+final class FareCalendarDay {
+
+    enum State {
+        LOADING,
+        FARE,
+        NO_TRIPS,
+        FAILED
+    }
+
+    private final String date;
+    private final String weekdayLabel;
+    private final String dayLabel;
+    private final State state;
+    private final int lowestFare;
+    private final boolean cheapest;
+
+    FareCalendarDay(@NonNull String date, @NonNull String weekdayLabel,
+                    @NonNull String dayLabel, @NonNull State state, int lowestFare,
+                    boolean cheapest) {
+        this.date = date;
+        this.weekdayLabel = weekdayLabel;
+        this.dayLabel = dayLabel;
+        this.state = state;
+        this.lowestFare = lowestFare;
+        this.cheapest = cheapest;
+    }
+
+    String getDate() {
+        return date;
+    }
+
+    String getWeekdayLabel() {
+        return weekdayLabel;
+    }
+
+    String getDayLabel() {
+        return dayLabel;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    int getLowestFare() {
+        return lowestFare;
+    }
+
+    /**
+     * Whether no other loaded day of the window is cheaper.
+     */
+    boolean isCheapest() {
+        return cheapest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FareCalendarDay that = (FareCalendarDay) o;
+        return lowestFare == that.lowestFare
+                && cheapest == that.cheapest
+                && state == that.state
+                && date.equals(that.date)
+                && weekdayLabel.equals(that.weekdayLabel)
+                && dayLabel.equals(that.dayLabel);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = date.hashCode();
+        result = 31 * result + state.hashCode();
+        result = 31 * result + lowestFare;
+        return result;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.voyage.ui.farecalendar;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.voyage.data.models.DayFare;
+import com.example.voyage.data.repositories.FareCalendar;
+import com.example.voyage.util.SchedulerProvider;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import io.reactivex.disposables.CompositeDisposable;
+
+public class FareCalendarViewModel extends ViewModel {
+
+    private static final String LOG_TAG = FareCalendarViewModel.class.getSimpleName();
+
+    // Two weeks, so every weekday shows up twice
+    static final int DAYS = 14;
+
+    private FareCalendar fareCalendar = FareCalendar.getInstance();
+    private SchedulerProvider schedulers = SchedulerProvider.getInstance();
+    private CompositeDisposable disposables = new CompositeDisposable();
+
+    private MutableLiveData<List<FareCalendarDay>> days = new MutableLiveData<>();
+    private String origin;
+    private String destination;
+
+    // The window, in order, with its labels formatted once
+    private List<String> dates;
+    private List<String> weekdayLabels;
+    private List<String> dayLabels;
+    // Fares that have arrived, by date. Main thread only
+    private Map<String, DayFare> fares = new HashMap<>();
+
+    /**
+     * Starts loading the window the first time it is called, later calls, e.g. after a
+     * rotation, return the days loaded so far.
+     *
+     * @param startDate the first date, yyyy-MM-dd. A past or unreadable date starts today
+     */
+    LiveData<List<FareCalendarDay>> getDays(String origin, String destination,
+                                            String startDate) {
+        if (dates == null) {
+            this.origin = origin;
+            this.destination = destination;
+            buildWindow(startDate);
+            publish();
+            load(dates);
+        }
+        return days;
+    }
+
+    /**
+     * Searches a date whose search failed again.
+     */
+    void retry(String date) {
+        fares.remove(date);
+        publish();
+        load(Collections.singletonList(date));
+    }
+
+    private void load(List<String> window) {
+        disposables.add(fareCalendar.load(origin, destination, window)
+                .observeOn(schedulers.ui())
+                .subscribe(fare -> {
+                    fares.put(fare.getDate(), fare);
+                    publish();
+                }, Throwable::printStackTrace));
+    }
+
+    private void buildWindow(String startDate) {
+        SimpleDateFormat apiFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.ENGLISH);
+        SimpleDateFormat weekdayFormat = new SimpleDateFormat("EEE", Locale.ENGLISH);
+        SimpleDateFormat dayFormat = new SimpleDateFormat("d MMM", Locale.ENGLISH);
+
+        Calendar calendar = Calendar.getInstance();
+        Calendar today = (Calendar) calendar.clone();
+        if (startDate != null) {
+            try {
+                Date start = apiFormat.parse(startDate);
+                calendar.setTime(start);
+            } catch (ParseException e) {
+                e.printStackTrace();
+            }
+        }
+        if (calendar.before(today)) {
+            calendar = today;
+        }
+
+        dates = new ArrayList<>(DAYS);
+        weekdayLabels = new ArrayList<>(DAYS);
+        dayLabels = new ArrayList<>(DAYS);
+        for (int i = 0; i < DAYS; i++) {
+            Date date = calendar.getTime();
+            dates.add(apiFormat.format(date));
+            weekdayLabels.add(weekdayFormat.format(date));
+            dayLabels.add(dayFormat.format(date));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    /**
+     * Rebuilds the cells from the fares so far. The adapter diffs them, so only the day that
+     * arrived and a day that stopped or started being the cheapest are rebound.
+     */
+    private void publish() {
+        int cheapest = 0;
+        for (DayFare fare : fares.values()) {
+            if (!fare.isFailed() && fare.getLowestFare() > 0
+                    && (cheapest == 0 || fare.getLowestFare() < cheapest)) {
+                cheapest = fare.getLowestFare();
+            }
+        }
+
+        List<FareCalendarDay> cells = new ArrayList<>(dates.size());
+        for (int i = 0; i < dates.size(); i++) {
+            DayFare fare = fares.get(dates.get(i));
+            FareCalendarDay.State state;
+            int lowestFare = 0;
+            if (fare == null) {
+                state = FareCalendarDay.State.LOADING;
+            } else if (fare.isFailed()) {
+                state = FareCalendarDay.State.FAILED;
+            } else if (fare.getLowestFare() == 0) {
+                state = FareCalendarDay.State.NO_TRIPS;
+            } else {
+                state = FareCalendarDay.State.FARE;
+                lowestFare = fare.getLowestFare();
+            }
+            cells.add(new FareCalendarDay(dates.get(i), weekdayLabels.get(i), dayLabels.get(i),
+                    state, lowestFare, lowestFare > 0 && lowestFare == cheapest));
+        }
+        days.setValue(cells);
+    }
+
+    @Override
+    protected void onCleared() {
+        disposables.dispose();
+    }
+}
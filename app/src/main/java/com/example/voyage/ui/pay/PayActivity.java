@@ -17,7 +17,6 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.NavUtils;
-import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProviders;
 
 import com.example.voyage.R;
@@ -171,23 +170,20 @@ public class PayActivity extends AppCompatActivity {
         mainLayout.setVisibility(View.GONE);
         progressBar.setVisibility(View.VISIBLE);
 
-        LiveData<Integer> status =
-                viewModel.pay(url, phoneNumber, tripId, pickPoint, dropPoint, intentSeatIds);
-        status.removeObservers(this);
-
-        status.observe(this, statusInteger -> {
-            if (statusInteger != null) {
-                if (statusInteger != -1) {
-                    Intent intent = new Intent(getApplicationContext(), RecentBookingActivity.class);
-                    startActivity(intent);
-                    finish();
-                    progressBar.setVisibility(View.GONE);
-                } else {
-                    mainLayout.setVisibility(View.VISIBLE);
-                    progressBar.setVisibility(View.GONE);
-                }
-            }
-        });
+        // Each payment has its own status, an earlier attempt can not finish this one
+        viewModel.pay(url, phoneNumber, tripId, pickPoint, dropPoint, intentSeatIds)
+                .observe(this, status -> {
+                    if (status.isSuccess()) {
+                        Intent intent = new Intent(getApplicationContext(),
+                                RecentBookingActivity.class);
+                        startActivity(intent);
+                        finish();
+                        progressBar.setVisibility(View.GONE);
+                    } else if (status.isError()) {
+                        mainLayout.setVisibility(View.VISIBLE);
+                        progressBar.setVisibility(View.GONE);
+                    }
+                });
     }
 
     private boolean isValidForm(Editable phoneNumber) {
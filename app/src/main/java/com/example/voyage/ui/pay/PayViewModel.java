@@ -3,20 +3,32 @@ package com.example.voyage.ui.pay;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.voyage.data.repositories.Resource;
 import com.example.voyage.data.repositories.VoyageRepository;
 
 import java.util.ArrayList;
 
+import io.reactivex.disposables.CompositeDisposable;
+
 public class PayViewModel extends ViewModel {
 
     private VoyageRepository voyageRepository;
 
+    private CompositeDisposable disposables = new CompositeDisposable();
+
     public PayViewModel() {
         voyageRepository = VoyageRepository.getInstance();
     }
 
-    LiveData<Integer> pay(String url, String phoneNumber, int tripId, int pickPoint, int dropPoint,
+    @Override
+    protected void onCleared() {
+        disposables.dispose();
+        super.onCleared();
+    }
+
+    LiveData<Resource<Integer>> pay(String url, String phoneNumber, int tripId, int pickPoint, int dropPoint,
                           ArrayList<Integer> intentSeatIds) {
-        return voyageRepository.pay(url, phoneNumber, tripId, pickPoint, dropPoint, intentSeatIds);
+        return voyageRepository.pay(url, phoneNumber, tripId, pickPoint, dropPoint, intentSeatIds,
+                disposables);
     }
 }
@@ -11,6 +11,7 @@ import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
@@ -20,7 +21,9 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voyage.R;
 import com.example.voyage.data.Constants;
+import com.example.voyage.data.models.PayDetails;
 import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.seats.SeatMap;
 import com.example.voyage.ui.pay.PayActivity;
 import com.example.voyage.ui.trips.TripsActivity;
 
@@ -28,7 +31,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 
-public class PickSeatActivity extends AppCompatActivity implements PickSeatAdapter.ItemClickListener {
+public class PickSeatActivity extends AppCompatActivity {
 
     private static final String LOG_TAG = PickSeatActivity.class.getSimpleName();
 
@@ -76,7 +79,7 @@ public class PickSeatActivity extends AppCompatActivity implements PickSeatAdapt
         recyclerView.setLayoutManager(layoutManager);
 
         // Adapter
-        seatAdapter = new PickSeatAdapter(this, this);
+        seatAdapter = new PickSeatAdapter(this);
         recyclerView.setAdapter(seatAdapter);
 
         // retrieve pickedSeatActivityIntent data
@@ -109,6 +112,10 @@ public class PickSeatActivity extends AppCompatActivity implements PickSeatAdapt
     }
 
     private void payActivityIntent() {
+        pickedSeatIds = seatAdapter.getSelectedItems();
+        Log.d(LOG_TAG, "Items: " +
+                Arrays.toString(pickedSeatIds.toArray()));
+
         Intent payActivityIntent = new Intent(PickSeatActivity.this,
                 PayActivity.class);
         payActivityIntent.putIntegerArrayListExtra(Seat.SEAT_SEAT_IDS_INTENT_EXTRA, pickedSeatIds);
@@ -117,8 +124,9 @@ public class PickSeatActivity extends AppCompatActivity implements PickSeatAdapt
         payActivityIntent.putExtra(Constants.TRIP_DROP_POINT_INTENT_EXTRA, intentIntegerDropPoint);
 
         viewModel.navigateToPay(intentIntegerPickPoint, intentIntegerDropPoint, intentIntegerTripId,
-                pickedSeatIds).observe(this, payDetails -> {
-            if (payDetails != null) {
+                pickedSeatIds).observe(this, resource -> {
+            PayDetails payDetails = resource.getData();
+            if (resource.isSuccess() && payDetails != null) {
                 String payUrl = payDetails.getPayUrl();
                 String originName = payDetails.getStages().get(0).getName();
                 String destinationName = payDetails.getStages().get(1).getName();
@@ -137,20 +145,22 @@ public class PickSeatActivity extends AppCompatActivity implements PickSeatAdapt
     }
 
     private void fetchSeats() {
-        viewModel.getSeats().observe(this, seatRowCollection -> {
-            if (seatRowCollection != null) {
-                seatAdapter.setSeatRowCollection(seatRowCollection);
+        viewModel.getSeats().observe(this, resource -> {
+            SeatMap seatMap = resource.getData();
+            if (resource.isLoading() && seatMap == null) {
+                return;
+            }
+            if (seatMap != null) {
+                int selectedBefore = seatAdapter.getSelectedCount();
+                seatAdapter.setSeatMap(seatMap);
+                if (seatMap.getSelectedCount() < selectedBefore) {
+                    Toast.makeText(this, "A seat you picked has just been booked",
+                            Toast.LENGTH_LONG).show();
+                }
             }
             recyclerView.setVisibility(View.VISIBLE);
             progressBar.setVisibility(View.GONE);
         });
 
     }
-
-    @Override
-    public void onItemClickListener() {
-        pickedSeatIds = (ArrayList<Integer>) seatAdapter.getSelectedItems();
-        Log.d(LOG_TAG, "Items: " +
-                Arrays.toString(pickedSeatIds.toArray()));
-    }
 }
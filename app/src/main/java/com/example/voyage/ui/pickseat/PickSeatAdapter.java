@@ -1,37 +1,30 @@
 package com.example.voyage.ui.pickseat;
 
 import android.content.Context;
-import android.util.Log;
-import android.util.SparseBooleanArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
+import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voyage.R;
-import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.seats.SeatLayout;
+import com.example.voyage.data.seats.SeatMap;
 
 import java.util.ArrayList;
-import java.util.List;
 
 class PickSeatAdapter extends RecyclerView.Adapter<PickSeatAdapter.ItemViewHolder> {
 
-    private static final String LOG_TAG = PickSeatAdapter.class.getSimpleName();
-
     private final Context context;
-    private final ItemClickListener itemClickListener;
-    private SeatRowCollection seatRowCollection;
-
-    private SparseBooleanArray selectedItems;
+    private SeatMap seatMap;
 
-    PickSeatAdapter(Context context, ItemClickListener itemClickListener) {
+    PickSeatAdapter(Context context) {
         this.context = context;
-        this.itemClickListener = itemClickListener;
-        selectedItems = new SparseBooleanArray();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -41,7 +34,7 @@ class PickSeatAdapter extends RecyclerView.Adapter<PickSeatAdapter.ItemViewHolde
         LayoutInflater layoutInflater = LayoutInflater.from(context);
 
         View view = layoutInflater.inflate(layoutIdForListItem, viewGroup, false);
-        return new PickSeatAdapter.ItemViewHolder(view);
+        return new PickSeatAdapter.ItemViewHolder(view, layoutInflater, seatMap.getLayout());
     }
 
     @Override
@@ -49,113 +42,122 @@ class PickSeatAdapter extends RecyclerView.Adapter<PickSeatAdapter.ItemViewHolde
         String rowNumber = String.valueOf(position + 1);
         itemViewHolder.rowNumberTextView.setText(rowNumber);
 
-        List<Seat> seatRow = seatRowCollection.getRowSeats().get(position);
+        itemViewHolder.bind(position);
+    }
 
-        for (Seat seat : seatRow) {
-            itemViewHolder.bind(seat);
-        }
+    @Override
+    public int getItemViewType(int position) {
+        // Rows are built for one seat layout, keep holders of different layouts apart
+        SeatLayout layout = seatMap.getLayout();
+        return layout.getRowWidth() << 8 | layout.getAisleAfter();
+    }
 
+    @Override
+    public long getItemId(int position) {
+        // A row is identified by its first seat
+        return seatMap.getSeatId(seatMap.seatIndex(position, 0));
     }
 
     @Override
     public int getItemCount() {
-        if (seatRowCollection == null) {
+        if (seatMap == null) {
             return 0;
         }
-        return seatRowCollection.getRowSeats().size();
+        return seatMap.getRowCount();
     }
 
-    private void toggleSelection(int id) {
-        if (selectedItems.get(id)) {
-            selectedItems.delete(id);
-        } else {
-            selectedItems.put(id, true);
-        }
+    int getSelectedCount() {
+        return seatMap != null ? seatMap.getSelectedCount() : 0;
     }
 
-    List<Integer> getSelectedItems() {
-        List<Integer> items = new ArrayList<>(selectedItems.size());
-        for (int i = 0; i < selectedItems.size(); ++i) {
-            items.add(selectedItems.keyAt(i));
+    ArrayList<Integer> getSelectedItems() {
+        if (seatMap == null) {
+            return new ArrayList<>();
         }
-        return items;
+        return seatMap.getSelectedSeatIds();
     }
 
-    class ItemViewHolder extends RecyclerView.ViewHolder {
+    class ItemViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
 
         TextView rowNumberTextView;
 
-        ImageView columnAImageView;
-        ImageView columnBImageView;
-        ImageView columnCImageView;
-        ImageView columnDImageView;
+        ImageView[] seatImageViews;
 
-        ItemViewHolder(@NonNull View itemView) {
+        ItemViewHolder(@NonNull View itemView, LayoutInflater layoutInflater, SeatLayout layout) {
             super(itemView);
             rowNumberTextView = itemView.findViewById(R.id.row_number_tv);
-            columnAImageView = itemView.findViewById(R.id.column_A_iv);
-            columnBImageView = itemView.findViewById(R.id.column_B_iv);
-            columnCImageView = itemView.findViewById(R.id.column_C_iv);
-            columnDImageView = itemView.findViewById(R.id.column_D_iv);
-        }
 
-        void bind(Seat seat) {
-            int seatModulus = seat.getId() % 4;
-
-            ImageView currentImage = null;
-            switch (seatModulus) {
-                case 0:
-                    currentImage = columnDImageView;
-                    break;
-                case 1:
-                    currentImage = columnAImageView;
-                    break;
-                case 2:
-                    currentImage = columnBImageView;
-                    break;
-                case 3:
-                    currentImage = columnCImageView;
-                    break;
+            // One image per seat in the row, split around the aisle
+            LinearLayout beforeAisle = itemView.findViewById(R.id.seats_before_aisle);
+            LinearLayout afterAisle = itemView.findViewById(R.id.seats_after_aisle);
+
+            seatImageViews = new ImageView[layout.getRowWidth()];
+            for (int column = 0; column < seatImageViews.length; column++) {
+                LinearLayout parent = column < layout.getAisleAfter() ? beforeAisle : afterAisle;
+                ImageView imageView = (ImageView) layoutInflater.inflate(
+                        R.layout.bus_seat_column, parent, false);
+                imageView.setTag(column);
+                imageView.setOnClickListener(this);
+                parent.addView(imageView);
+                seatImageViews[column] = imageView;
             }
+        }
 
-            setSeatDrawable(currentImage, seat);
+        void bind(int row) {
+            for (int column = 0; column < seatImageViews.length; column++) {
+                ImageView imageView = seatImageViews[column];
+                int index = seatMap.seatIndex(row, column);
+                if (index < 0) {
+                    imageView.setVisibility(View.INVISIBLE);
+                    continue;
+                }
+                imageView.setVisibility(View.VISIBLE);
+                setSeatDrawable(imageView, index);
+            }
         }
 
-        private void setSeatDrawable(ImageView imageView, Seat seat) {
-            if (seat.getAvailable() == 1) {
-                seat.setSeatAvailable(true);
-                imageView.setImageResource(R.drawable.available_img);
-            } else {
-                seat.setSeatAvailable(false);
+        private void setSeatDrawable(ImageView imageView, int index) {
+            if (!seatMap.isAvailable(index)) {
                 imageView.setImageResource(R.drawable.booked_img);
+            } else if (seatMap.isSelected(index)) {
+                imageView.setImageResource(R.drawable.your_seat_img);
+            } else {
+                imageView.setImageResource(R.drawable.available_img);
             }
+        }
 
-            if (seat.isAvailable()) {
-                imageView.setOnClickListener(v -> {
-                    Log.d(LOG_TAG, "Selected seat id: " + seat.getId() +
-                            "\nSeat is available: " + seat.isAvailable());
-                    seat.setSeatAvailable(!seat.isAvailable());
-                    toggleSelection(seat.getId());
-
-                    if (seat.isAvailable()) {
-                        imageView.setImageResource(R.drawable.available_img);
-                    } else {
-                        imageView.setImageResource(R.drawable.your_seat_img);
-                    }
-
-                    itemClickListener.onItemClickListener();
-                });
+        @Override
+        public void onClick(View v) {
+            int row = getAdapterPosition();
+            if (row == RecyclerView.NO_POSITION) {
+                return;
+            }
+            int index = seatMap.seatIndex(row, (int) v.getTag());
+            if (index < 0 || !seatMap.isAvailable(index)) {
+                return;
             }
-        }
-    }
 
-    void setSeatRowCollection(SeatRowCollection rowCollection) {
-        this.seatRowCollection = rowCollection;
-        notifyDataSetChanged();
+            seatMap.toggleSelection(index);
+            setSeatDrawable((ImageView) v, index);
+        }
     }
 
-
-    public interface ItemClickListener {
-        void onItemClickListener();
+    /**
+     * Shows a new seat plan. When the bus and layout are unchanged only the rows whose seats
+     * changed are rebound, comparing the bitsets is cheaper than a list diff so this stays on
+     * the main thread.
+     */
+    void setSeatMap(SeatMap seatMap) {
+        SeatMap previous = this.seatMap;
+        this.seatMap = seatMap;
+        if (previous == null || seatMap == null || !seatMap.hasSameSeats(previous)) {
+            notifyDataSetChanged();
+            return;
+        }
+        for (int row = 0; row < seatMap.getRowCount(); row++) {
+            if (seatMap.rowDiffers(previous, row)) {
+                notifyItemChanged(row);
+            }
+        }
     }
 }
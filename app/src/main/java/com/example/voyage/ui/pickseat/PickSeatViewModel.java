@@ -1,11 +1,12 @@
 package com.example.voyage.ui.pickseat;
 
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.voyage.data.models.PayDetails;
+import com.example.voyage.data.repositories.Resource;
 import com.example.voyage.data.repositories.VoyageRepository;
+import com.example.voyage.data.seats.SeatMap;
 
 import java.util.ArrayList;
 
@@ -16,7 +17,6 @@ public class PickSeatViewModel extends ViewModel {
     private final int busId;
 
     private CompositeDisposable disposables = new CompositeDisposable();
-    private MutableLiveData<SeatRowCollection> seatRowCollectionLiveData = new MutableLiveData<>();
 
     PickSeatViewModel(int busId) {
         this.voyageRepository = VoyageRepository.getInstance();
@@ -29,13 +29,13 @@ public class PickSeatViewModel extends ViewModel {
         super.onCleared();
     }
 
-    LiveData<SeatRowCollection> getSeats() {
-        return voyageRepository.getSeats(busId);
+    LiveData<Resource<SeatMap>> getSeats() {
+        return voyageRepository.getSeats(busId, disposables);
     }
 
 
-    LiveData<PayDetails> navigateToPay(int pickPoint, int dropPoint, int tripId,
+    LiveData<Resource<PayDetails>> navigateToPay(int pickPoint, int dropPoint, int tripId,
                                        ArrayList<Integer> seats) {
-        return voyageRepository.pickSeat(pickPoint, dropPoint, tripId, seats);
+        return voyageRepository.pickSeat(pickPoint, dropPoint, tripId, seats, disposables);
     }
 }
@@ -9,15 +9,16 @@ import android.net.NetworkCapabilities;
 import android.net.NetworkRequest;
 import android.os.Bundle;
 import android.os.Handler;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
-import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
-import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -29,16 +30,17 @@ import androidx.lifecycle.ViewModelProviders;
 
 import com.example.voyage.R;
 import com.example.voyage.data.Constants;
-import com.example.voyage.data.models.Schedule;
+import com.example.voyage.data.search.RouteIndex;
+import com.example.voyage.data.search.StopIndex;
 import com.example.voyage.ui.authentication.LoginActivity;
 import com.example.voyage.ui.bookings.RecentBookingActivity;
+import com.example.voyage.ui.farecalendar.FareCalendarActivity;
 import com.example.voyage.ui.trips.TripsActivity;
+import com.example.voyage.util.PreferenceUtilities;
 import com.google.android.material.navigation.NavigationView;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 
@@ -50,13 +52,17 @@ public class SearchBusActivity extends AppCompatActivity {
     private DatePickerListener datePickerListener = new DatePickerListener();
 
     private SearchBusActivityViewModel viewModel;
-    private List<Schedule> schedules;
+    private RouteIndex routeIndex;
+    private boolean reportedFullyDrawn;
 
-    private Spinner originSpinner;
-    private Spinner destinationSpinner;
+    private AutoCompleteTextView originStop;
+    private AutoCompleteTextView destinationStop;
+    private StopSuggestionAdapter originAdapter;
+    private StopSuggestionAdapter destinationAdapter;
     private ProgressBar progressBar;
     private LinearLayout linearLayout;
     private Button searchBuses;
+    private Button cheapestDay;
     private ConnectivityManager connectivityManager;
     Toolbar mToolbar;
     private TextView userFirstNameTextView;
@@ -68,6 +74,13 @@ public class SearchBusActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
+        // This is the launcher, signed out users are sent on before anything is inflated
+        if (PreferenceUtilities.getUserToken(this) == null) {
+            startActivity(new Intent(this, LoginActivity.class));
+            finish();
+            return;
+        }
+
         requestWindowFeature(Window.FEATURE_NO_TITLE);
 
         getWindow().setFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN,
@@ -87,14 +100,34 @@ public class SearchBusActivity extends AppCompatActivity {
 //        linearLayout.setVisibility(View.GONE);
 
         searchBuses = findViewById(R.id.search_buses);
-        originSpinner = findViewById(R.id.originSpinner);
-        destinationSpinner = findViewById(R.id.destinationSpinner);
+        cheapestDay = findViewById(R.id.cheapest_day);
+        originStop = findViewById(R.id.originStop);
+        destinationStop = findViewById(R.id.destinationStop);
         dateEditText = findViewById(R.id.select_date);
         greetingTextView = findViewById(R.id.greeting_textView);
 
         viewModel = ViewModelProviders.of(this).get(SearchBusActivityViewModel.class);
 
-        fetchSchedules();
+        viewModel.getRoutes().observe(this, this::showRoutes);
+        viewModel.loadSchedules();
+
+        // Only offer destinations the chosen origin actually has trips to
+        originStop.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                setDestinationData(resolveOrigin());
+            }
+        });
+        originStop.setOnItemClickListener((parent, view, position, id) ->
+                destinationStop.requestFocus());
 
         dateEditText.setOnClickListener(view -> {
             int year = c.get(Calendar.YEAR);
@@ -105,12 +138,21 @@ public class SearchBusActivity extends AppCompatActivity {
 
         searchBuses.setEnabled(false);
         searchBuses.setOnClickListener(view -> {
-            String origin = (String) originSpinner.getSelectedItem();
-            String destination = (String) destinationSpinner.getSelectedItem();
+            String origin = resolveOrigin();
+            String destination = resolveDestination(origin);
 
             String selectedDate = new SimpleDateFormat("yyyy-MM-dd", Locale.ENGLISH)
                     .format(c.getTime());
 
+            RouteIndex.SearchCheck check = routeIndex != null
+                    ? routeIndex.check(origin, destination, selectedDate)
+                    : RouteIndex.SearchCheck.OK;
+            if (check != RouteIndex.SearchCheck.OK) {
+                // No trip can match, don't ask the server
+                Toast.makeText(this, searchCheckMessage(check), Toast.LENGTH_LONG).show();
+                return;
+            }
+
             if (selectedDate != null) {
                 Intent intent = new Intent(this, TripsActivity.class);
                 intent.putExtra(Constants.TRIP_PICK_POINT_INTENT_EXTRA, origin);
@@ -121,6 +163,31 @@ public class SearchBusActivity extends AppCompatActivity {
             }
         });
 
+        cheapestDay.setEnabled(false);
+        cheapestDay.setOnClickListener(view -> {
+            String origin = resolveOrigin();
+            String destination = resolveDestination(origin);
+
+            String selectedDate = new SimpleDateFormat("yyyy-MM-dd", Locale.ENGLISH)
+                    .format(c.getTime());
+
+            // The calendar covers other dates, only the route has to exist
+            RouteIndex.SearchCheck check = routeIndex != null
+                    ? routeIndex.check(origin, destination, selectedDate)
+                    : RouteIndex.SearchCheck.OK;
+            if (check == RouteIndex.SearchCheck.UNKNOWN_STOP
+                    || check == RouteIndex.SearchCheck.NO_ROUTE) {
+                Toast.makeText(this, searchCheckMessage(check), Toast.LENGTH_LONG).show();
+                return;
+            }
+
+            Intent intent = new Intent(this, FareCalendarActivity.class);
+            intent.putExtra(Constants.TRIP_PICK_POINT_INTENT_EXTRA, origin);
+            intent.putExtra(Constants.TRIP_DROP_POINT_INTENT_EXTRA, destination);
+            intent.putExtra(Constants.TRIP_DATE_INTENT_EXTRA, selectedDate);
+            startActivity(intent);
+        });
+
         //adding a navigation drawer
 
         DrawerLayout drawer = findViewById(R.id.drawer_layout);
@@ -193,36 +260,83 @@ public class SearchBusActivity extends AppCompatActivity {
     }
 
 
-    private void fetchSchedules() {
-        viewModel.getSchedules().observe(this, returnedSchedules -> {
-            if (returnedSchedules != null) {
-                schedules = returnedSchedules;
-                setSpinnerData();
-                searchBuses.setEnabled(true);
-            } else {
-                searchBuses.setEnabled(false);
+    private void showRoutes(RouteIndex routes) {
+        if (!reportedFullyDrawn) {
+            // Marks the end of a cold start for `am start -W` and scripts/cold-start.sh
+            reportedFullyDrawn = true;
+            reportFullyDrawn();
+        }
+        if (routes != null) {
+            if (routes != routeIndex) {
+                routeIndex = routes;
+                setStopData();
             }
-            linearLayout.setVisibility(View.VISIBLE);
-            progressBar.setVisibility(View.GONE);
-        });
+            searchBuses.setEnabled(true);
+            cheapestDay.setEnabled(true);
+        } else {
+            searchBuses.setEnabled(false);
+            cheapestDay.setEnabled(false);
+        }
+        linearLayout.setVisibility(View.VISIBLE);
+        progressBar.setVisibility(View.GONE);
     }
 
-    private void setSpinnerData() {
-        ArrayList<String> originSpinnerItems = new ArrayList<>();
-        ArrayList<String> destinationSpinnerItems = new ArrayList<>();
+    private void setStopData() {
+        if (originAdapter == null) {
+            originAdapter = new StopSuggestionAdapter(this, routeIndex.getOriginIndex());
+            originStop.setAdapter(originAdapter);
+        } else {
+            originAdapter.setStopIndex(routeIndex.getOriginIndex());
+        }
+        setDestinationData(resolveOrigin());
+    }
 
-        for (Schedule schedule : schedules) {
-            originSpinnerItems.add(schedule.getOrigin());
-            destinationSpinnerItems.add(schedule.getDestination());
+    private void setDestinationData(String origin) {
+        if (routeIndex == null) {
+            return;
         }
+        // Suggest only what can be reached from the origin, or nothing until it is known
+        StopIndex destinations = routeIndex.destinationIndexFrom(origin);
+        if (destinationAdapter == null) {
+            destinationAdapter = new StopSuggestionAdapter(this, destinations);
+            destinationStop.setAdapter(destinationAdapter);
+        } else if (destinationAdapter.getStopIndex() != destinations) {
+            destinationAdapter.setStopIndex(destinations);
+        }
+    }
+
+    /**
+     * The origin stop as named in the schedules, or the typed text if it matches none.
+     */
+    private String resolveOrigin() {
+        String text = originStop.getText().toString().trim();
+        if (routeIndex == null) {
+            return text;
+        }
+        String origin = routeIndex.getOriginIndex().resolve(text);
+        return origin != null ? origin : text;
+    }
 
-        ArrayAdapter<String> originSpinnerAdapter = new ArrayAdapter<>(
-                this, android.R.layout.simple_spinner_item, originSpinnerItems);
-        originSpinner.setAdapter(originSpinnerAdapter);
+    private String resolveDestination(String origin) {
+        String text = destinationStop.getText().toString().trim();
+        if (routeIndex == null) {
+            return text;
+        }
+        String destination = routeIndex.destinationIndexFrom(origin).resolve(text);
+        return destination != null ? destination : text;
+    }
 
-        ArrayAdapter<String> destinationSpinnerAdapter = new ArrayAdapter<>(
-                this, android.R.layout.simple_spinner_item, destinationSpinnerItems);
-        destinationSpinner.setAdapter(destinationSpinnerAdapter);
+    private String searchCheckMessage(RouteIndex.SearchCheck check) {
+        switch (check) {
+            case UNKNOWN_STOP:
+                return "Pick a departure and destination from the list";
+            case NO_ROUTE:
+                return "No buses run between these stops";
+            case NO_DEPARTURE_ON_DATE:
+                return "No buses leave on this date, try another day";
+            default:
+                return "";
+        }
     }
 
     private class DatePickerListener implements DatePickerDialog.OnDateSetListener {
@@ -246,7 +360,7 @@ public class SearchBusActivity extends AppCompatActivity {
             handler.post(() -> {
                 linearLayout.setVisibility(View.GONE);
                 progressBar.setVisibility(View.VISIBLE);
-                fetchSchedules();
+                viewModel.loadSchedules();
             });
         }
 
@@ -258,6 +372,7 @@ public class SearchBusActivity extends AppCompatActivity {
                         "Network connectivity lost",
                         Toast.LENGTH_LONG).show();
                 searchBuses.setEnabled(false);
+                cheapestDay.setEnabled(false);
             });
         }
     };
@@ -1,19 +1,24 @@
 package com.example.voyage.ui.searchbus;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.voyage.auth.VoyageAuth;
 import com.example.voyage.auth.VoyageUser;
 import com.example.voyage.data.models.Schedule;
+import com.example.voyage.data.repositories.Resource;
 import com.example.voyage.data.repositories.VoyageRepository;
+import com.example.voyage.data.search.RouteIndex;
+import com.example.voyage.util.SchedulerProvider;
 
 import java.util.List;
 
-import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.Single;
 import io.reactivex.disposables.CompositeDisposable;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 
 public class SearchBusActivityViewModel extends ViewModel {
 
@@ -22,6 +27,12 @@ public class SearchBusActivityViewModel extends ViewModel {
     private VoyageRepository voyageRepository;
     private MutableLiveData<VoyageUser> user = new MutableLiveData<>();
     private CompositeDisposable compositeDisposable = new CompositeDisposable();
+    private SchedulerProvider schedulers = SchedulerProvider.getInstance();
+
+    private MediatorLiveData<RouteIndex> routes = new MediatorLiveData<>();
+    private LiveData<Resource<List<Schedule>>> schedulesSource;
+    private List<Schedule> indexedSchedules;
+    private Disposable indexing = Disposables.disposed();
 
     public SearchBusActivityViewModel() {
         this.voyageRepository = VoyageRepository.getInstance();
@@ -31,18 +42,55 @@ public class SearchBusActivityViewModel extends ViewModel {
     @Override
     protected void onCleared() {
         compositeDisposable.dispose();
+        indexing.dispose();
         super.onCleared();
     }
 
-    LiveData<List<Schedule>> getSchedules() {
-        return voyageRepository.getSchedules();
+    /**
+     * Routes of the loaded schedules, null when they could not be loaded.
+     */
+    LiveData<RouteIndex> getRoutes() {
+        return routes;
+    }
+
+    void loadSchedules() {
+        LiveData<Resource<List<Schedule>>> schedules =
+                voyageRepository.getSchedules(compositeDisposable);
+        if (schedules != schedulesSource) {
+            if (schedulesSource != null) {
+                routes.removeSource(schedulesSource);
+            }
+            schedulesSource = schedules;
+            routes.addSource(schedules, this::indexSchedules);
+        }
+    }
+
+    /**
+     * Builds the route index off the main thread, once per distinct schedule list.
+     */
+    private void indexSchedules(Resource<List<Schedule>> resource) {
+        List<Schedule> schedules = resource.getData();
+        if (schedules == null) {
+            if (resource.isError()) {
+                indexing.dispose();
+                routes.setValue(null);
+            }
+            return;
+        }
+        if (schedules == indexedSchedules) {
+            return;
+        }
+        indexedSchedules = schedules;
+        indexing.dispose();
+        indexing = Single.fromCallable(() -> RouteIndex.build(schedules))
+                .subscribeOn(schedulers.computation())
+                .observeOn(schedulers.ui())
+                .subscribe(routes::setValue, Throwable::printStackTrace);
     }
 
     LiveData<VoyageUser> getUser() {
         compositeDisposable.add(
                 auth.currentUser()
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(voyageUser -> user.setValue(voyageUser),
                                 Throwable::printStackTrace)
         );
@@ -0,0 +1,101 @@
+package com.example.voyage.ui.searchbus;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.Filter;
+import android.widget.Filterable;
+import android.widget.TextView;
+
+import com.example.voyage.data.search.StopIndex;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Suggestions for a stop field, answered by a {@link StopIndex} instead of filtering a list of
+ * every stop.
+ */
+class StopSuggestionAdapter extends BaseAdapter implements Filterable {
+
+    private static final int MAX_SUGGESTIONS = 8;
+
+    private final LayoutInflater layoutInflater;
+    private StopIndex stopIndex;
+    private List<String> suggestions = Collections.emptyList();
+
+    StopSuggestionAdapter(Context context, StopIndex stopIndex) {
+        this.layoutInflater = LayoutInflater.from(context);
+        this.stopIndex = stopIndex;
+    }
+
+    void setStopIndex(StopIndex stopIndex) {
+        this.stopIndex = stopIndex;
+        suggestions = Collections.emptyList();
+        notifyDataSetInvalidated();
+    }
+
+    StopIndex getStopIndex() {
+        return stopIndex;
+    }
+
+    @Override
+    public int getCount() {
+        return suggestions.size();
+    }
+
+    @Override
+    public String getItem(int position) {
+        return suggestions.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        TextView textView = (TextView) convertView;
+        if (textView == null) {
+            textView = (TextView) layoutInflater.inflate(
+                    android.R.layout.simple_dropdown_item_1line, parent, false);
+        }
+        textView.setText(getItem(position));
+        return textView;
+    }
+
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+
+    private final Filter filter = new Filter() {
+
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            // The index is immutable, so querying it from the filter thread is safe
+            List<String> matches = stopIndex.complete(
+                    constraint != null ? constraint.toString() : "", MAX_SUGGESTIONS);
+            FilterResults results = new FilterResults();
+            results.values = matches;
+            results.count = matches.size();
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            suggestions = results.values != null
+                    ? (List<String>) results.values
+                    : Collections.<String>emptyList();
+            if (results.count > 0) {
+                notifyDataSetChanged();
+            } else {
+                notifyDataSetInvalidated();
+            }
+        }
+    };
+}
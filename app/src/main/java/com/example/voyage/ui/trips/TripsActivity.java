@@ -8,9 +8,13 @@ import android.view.Window;
 import android.view.WindowManager;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
+import android.widget.RadioGroup;
+import android.widget.SeekBar;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.app.NavUtils;
@@ -20,6 +24,8 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voyage.R;
 import com.example.voyage.data.Constants;
+import com.example.voyage.data.repositories.SeatPrefetcher;
+import com.example.voyage.data.trips.TripSortFilter;
 import com.example.voyage.ui.pickseat.PickSeatActivity;
 
 import java.text.ParseException;
@@ -83,10 +89,35 @@ public class TripsActivity extends AppCompatActivity implements TripsAdapter.Ite
         ImageView backButton = findViewById(R.id.available_bus_back_button);
         backButton.setOnClickListener(view -> NavUtils.navigateUpFromSameTask(this));
 
+        // sort and filter the loaded trips
+        ImageView filterButton = findViewById(R.id.trips_filter_button);
+        filterButton.setOnClickListener(view -> showFilterDialog());
+
         // Adapter
         busAdapter = new TripsAdapter(this, this);
         recyclerView.setAdapter(busAdapter);
 
+        // Warm the seat maps of whatever the rider stops scrolling at
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                if (newState != RecyclerView.SCROLL_STATE_IDLE) {
+                    return;
+                }
+                LinearLayoutManager layoutManager =
+                        (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) {
+                    return;
+                }
+                int first = layoutManager.findFirstVisibleItemPosition();
+                if (first == RecyclerView.NO_POSITION) {
+                    return;
+                }
+                viewModel.prefetchSeats(busAdapter.getBusIds(
+                        first, first + SeatPrefetcher.MAX_BUSES - 1));
+            }
+        });
+
         // Intent extras
         getIntentData();
 
@@ -140,8 +171,12 @@ public class TripsActivity extends AppCompatActivity implements TripsAdapter.Ite
             viewModel.getTrips(intentStringOrigin, intentStringDestination, intentStringDate)
                     .observe(this, trips -> {
                         if (trips != null) {
+                            busAdapter.setSeatClass(viewModel.getQuery().getSeatClass());
                             busAdapter.setTrips(trips);
                             if (trips.size() == 0) {
+                                noTripsTextView.setText(viewModel.hasTrips()
+                                        ? R.string.no_trips_match_filter
+                                        : R.string.no_trips_found);
                                 noTripsTextView.setVisibility(View.VISIBLE);
                                 recyclerView.setVisibility(View.GONE);
                             } else {
@@ -154,6 +189,136 @@ public class TripsActivity extends AppCompatActivity implements TripsAdapter.Ite
         }
     }
 
+    /**
+     * Every change is applied to the list straight away, the dialog only closes.
+     */
+    private void showFilterDialog() {
+        View dialogView = getLayoutInflater().inflate(R.layout.dialog_trip_filter, null);
+        RadioGroup sortGroup = dialogView.findViewById(R.id.trip_filter_sort);
+        RadioGroup classGroup = dialogView.findViewById(R.id.trip_filter_class);
+        RadioGroup departureGroup = dialogView.findViewById(R.id.trip_filter_departure);
+        TextView maxPriceLabel = dialogView.findViewById(R.id.trip_filter_max_price_label);
+        SeekBar maxPriceBar = dialogView.findViewById(R.id.trip_filter_max_price);
+
+        TripSortFilter.Query query = viewModel.getQuery();
+        sortGroup.check(sortButtonOf(query.getSort()));
+        classGroup.check(query.getSeatClass() == TripSortFilter.SeatClass.SECOND
+                ? R.id.trip_filter_class_second : R.id.trip_filter_class_first);
+        departureGroup.check(departureButtonOf(query.getDepartureWindow()));
+        showMaxPrice(maxPriceBar, maxPriceLabel);
+
+        sortGroup.setOnCheckedChangeListener((group, checkedId) ->
+                viewModel.setQuery(viewModel.getQuery().withSort(sortOf(checkedId))));
+        classGroup.setOnCheckedChangeListener((group, checkedId) -> {
+            viewModel.setQuery(viewModel.getQuery().withSeatClass(
+                    checkedId == R.id.trip_filter_class_second
+                            ? TripSortFilter.SeatClass.SECOND : TripSortFilter.SeatClass.FIRST));
+            showMaxPrice(maxPriceBar, maxPriceLabel);
+        });
+        departureGroup.setOnCheckedChangeListener((group, checkedId) ->
+                viewModel.setQuery(viewModel.getQuery().withDepartureWindow(
+                        departureOf(checkedId))));
+        maxPriceBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                if (!fromUser) {
+                    return;
+                }
+                // The bar starts at the cheapest price, its right end means no limit
+                int lowest = viewModel.getMinPrice(viewModel.getQuery().getSeatClass());
+                int maxPrice = progress == seekBar.getMax() ? 0 : lowest + progress;
+                viewModel.setQuery(viewModel.getQuery().withMaxPrice(maxPrice));
+                showMaxPriceLabel(maxPriceLabel, maxPrice);
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        });
+
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.trip_filter_title)
+                .setView(dialogView)
+                .setPositiveButton(R.string.trip_filter_done, null)
+                .setNeutralButton(R.string.trip_filter_reset, (dialog, which) ->
+                        viewModel.setQuery(TripSortFilter.Query.DEFAULT))
+                .show();
+    }
+
+    private void showMaxPrice(SeekBar maxPriceBar, TextView maxPriceLabel) {
+        TripSortFilter.Query query = viewModel.getQuery();
+        // SeekBar.setMin needs API 26, so the bar runs from 0 and is offset by the cheapest price
+        int lowest = viewModel.getMinPrice(query.getSeatClass());
+        int highest = viewModel.getMaxPrice(query.getSeatClass());
+        maxPriceBar.setEnabled(highest > lowest);
+        maxPriceBar.setMax(highest - lowest);
+        maxPriceBar.setProgress(query.getMaxPrice() > 0
+                ? query.getMaxPrice() - lowest : highest - lowest);
+        showMaxPriceLabel(maxPriceLabel, query.getMaxPrice());
+    }
+
+    private void showMaxPriceLabel(TextView maxPriceLabel, int maxPrice) {
+        maxPriceLabel.setText(maxPrice > 0
+                ? getString(R.string.trip_filter_max_price, maxPrice)
+                : getString(R.string.trip_filter_any_price));
+    }
+
+    private static int sortButtonOf(TripSortFilter.Sort sort) {
+        switch (sort) {
+            case ARRIVAL:
+                return R.id.trip_filter_sort_arrival;
+            case PRICE:
+                return R.id.trip_filter_sort_price;
+            case DURATION:
+                return R.id.trip_filter_sort_duration;
+            default:
+                return R.id.trip_filter_sort_departure;
+        }
+    }
+
+    private static TripSortFilter.Sort sortOf(int buttonId) {
+        if (buttonId == R.id.trip_filter_sort_arrival) {
+            return TripSortFilter.Sort.ARRIVAL;
+        } else if (buttonId == R.id.trip_filter_sort_price) {
+            return TripSortFilter.Sort.PRICE;
+        } else if (buttonId == R.id.trip_filter_sort_duration) {
+            return TripSortFilter.Sort.DURATION;
+        }
+        return TripSortFilter.Sort.DEPARTURE;
+    }
+
+    private static int departureButtonOf(TripSortFilter.DepartureWindow window) {
+        switch (window) {
+            case MORNING:
+                return R.id.trip_filter_departure_morning;
+            case AFTERNOON:
+                return R.id.trip_filter_departure_afternoon;
+            case EVENING:
+                return R.id.trip_filter_departure_evening;
+            case NIGHT:
+                return R.id.trip_filter_departure_night;
+            default:
+                return R.id.trip_filter_departure_any;
+        }
+    }
+
+    private static TripSortFilter.DepartureWindow departureOf(int buttonId) {
+        if (buttonId == R.id.trip_filter_departure_morning) {
+            return TripSortFilter.DepartureWindow.MORNING;
+        } else if (buttonId == R.id.trip_filter_departure_afternoon) {
+            return TripSortFilter.DepartureWindow.AFTERNOON;
+        } else if (buttonId == R.id.trip_filter_departure_evening) {
+            return TripSortFilter.DepartureWindow.EVENING;
+        } else if (buttonId == R.id.trip_filter_departure_night) {
+            return TripSortFilter.DepartureWindow.NIGHT;
+        }
+        return TripSortFilter.DepartureWindow.ANY;
+    }
+
     @Override
     public void onItemClickListener(int tripId, int pickPoint, int dropPoint, int busId) {
         // Launch PickSeatActivity adding the itemId as an extra in the intent
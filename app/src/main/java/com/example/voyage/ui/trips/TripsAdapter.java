@@ -7,29 +7,34 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voyage.R;
-import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.trips.TripDisplayModel;
+import com.example.voyage.data.trips.TripSortFilter;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
-class TripsAdapter extends RecyclerView.Adapter<TripsAdapter.ItemViewHolder> {
+class TripsAdapter extends ListAdapter<TripDisplayModel, TripsAdapter.ItemViewHolder> {
 
     private static final String LOG_TAG = TripsAdapter.class.getSimpleName();
 
+    // Rebinds only the price of a row
+    private static final Object PAYLOAD_PRICE = new Object();
+
     final private ItemClickListener itemClickListener;
 
     private Context context;
-    private List<Trip> trips;
+    private TripSortFilter.SeatClass seatClass = TripSortFilter.SeatClass.FIRST;
 
     TripsAdapter(Context context, ItemClickListener itemClickListener) {
+        super(DIFF_CALLBACK);
         this.context = context;
         this.itemClickListener = itemClickListener;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -44,47 +49,62 @@ class TripsAdapter extends RecyclerView.Adapter<TripsAdapter.ItemViewHolder> {
 
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder viewHolder, int position) {
-        Trip trip = trips.get(position);
-
-        String departureTime = trip.getDepartureTime();
-        String arrivalTime = trip.getArrivalTime();
-
-        Date formattedDepartureTime;
-        Date formattedArrivalTime;
-        String durationString = "";
-
-        SimpleDateFormat originalTimeFormat =
-                new SimpleDateFormat("yyyy-MM-dd kk:mm:ss", Locale.ENGLISH);
-        SimpleDateFormat screenTimeFormat = new SimpleDateFormat("h:mm a", Locale.ENGLISH);
-        try {
-            formattedDepartureTime = originalTimeFormat.parse(departureTime);
-            formattedArrivalTime = originalTimeFormat.parse(arrivalTime);
+        TripDisplayModel trip = getItem(position);
 
-            String finalFormatDeparture = screenTimeFormat.format(formattedDepartureTime);
-            String finalFormatArrival = screenTimeFormat.format(formattedArrivalTime);
+        viewHolder.timeTextView.setText(trip.getTimeRange());
+        viewHolder.durationTextView.setText(trip.getDurationLabel());
+        viewHolder.priceTextView.setText(priceLabelOf(trip));
+    }
 
-            durationString = finalFormatDeparture.concat(" - ").concat(finalFormatArrival);
-        } catch (ParseException e) {
-            e.printStackTrace();
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder viewHolder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.size() == 1 && payloads.get(0) == PAYLOAD_PRICE) {
+            viewHolder.priceTextView.setText(priceLabelOf(getItem(position)));
+        } else {
+            super.onBindViewHolder(viewHolder, position, payloads);
         }
+    }
 
-        String price = String.valueOf(trip.getFirstClassPrice()).concat(" KES");
-
-        viewHolder.timeTextView.setText(durationString);
-        viewHolder.priceTextView.setText(price);
+    private String priceLabelOf(TripDisplayModel trip) {
+        return seatClass == TripSortFilter.SeatClass.SECOND
+                ? trip.getSecondClassPriceLabel() : trip.getPriceLabel();
     }
 
     @Override
-    public int getItemCount() {
-        if (trips == null) {
-            return 0;
+    public long getItemId(int position) {
+        return getItem(position).getId();
+    }
+
+    /**
+     * Bus ids of the trips shown between the two positions, both inclusive.
+     */
+    List<Integer> getBusIds(int from, int to) {
+        List<Integer> busIds = new ArrayList<>();
+        for (int position = Math.max(from, 0);
+             position <= to && position < getItemCount(); position++) {
+            busIds.add(getItem(position).getBusId());
         }
-        return trips.size();
+        return busIds;
     }
 
-    void setTrips(List<Trip> trips) {
-        this.trips = trips;
-        notifyDataSetChanged();
+    /**
+     * Diffs the new list against the shown one on a background thread and only rebinds the
+     * trips that changed.
+     */
+    void setTrips(List<TripDisplayModel> trips) {
+        submitList(trips);
+    }
+
+    /**
+     * Shows the prices of the seat class, rebinding only the price of the rows already shown.
+     */
+    void setSeatClass(TripSortFilter.SeatClass seatClass) {
+        if (this.seatClass == seatClass) {
+            return;
+        }
+        this.seatClass = seatClass;
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_PRICE);
     }
 
     public interface ItemClickListener {
@@ -94,24 +114,41 @@ class TripsAdapter extends RecyclerView.Adapter<TripsAdapter.ItemViewHolder> {
     public class ItemViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
         private TextView priceTextView;
         private TextView timeTextView;
+        private TextView durationTextView;
 
         ItemViewHolder(View view) {
             super(view);
 
             timeTextView = view.findViewById(R.id.time_text_view);
+            durationTextView = view.findViewById(R.id.trip_duration);
             priceTextView = view.findViewById(R.id.seat_price);
             view.setOnClickListener(this);
         }
 
         @Override
         public void onClick(View v) {
-            Trip trip = trips.get(getAdapterPosition());
-            int tripId = trip.getId();
-            int pickPointId = trip.getOriginStage().getId();
-            int dropPointId = trip.getDestinationStage().getId();
-            int busId = trip.getBusId();
-
-            itemClickListener.onItemClickListener(tripId, pickPointId, dropPointId, busId);
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            TripDisplayModel trip = getItem(position);
+            itemClickListener.onItemClickListener(trip.getId(), trip.getPickPointId(),
+                    trip.getDropPointId(), trip.getBusId());
         }
     }
+
+    private static final DiffUtil.ItemCallback<TripDisplayModel> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<TripDisplayModel>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull TripDisplayModel oldTrip,
+                                               @NonNull TripDisplayModel newTrip) {
+                    return oldTrip.getId() == newTrip.getId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull TripDisplayModel oldTrip,
+                                                  @NonNull TripDisplayModel newTrip) {
+                    return oldTrip.equals(newTrip);
+                }
+            };
 }
@@ -1,22 +1,159 @@
 package com.example.voyage.ui.trips;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.repositories.Resource;
+import com.example.voyage.data.repositories.SeatPrefetcher;
 import com.example.voyage.data.repositories.VoyageRepository;
+import com.example.voyage.data.trips.TripDisplayMapper;
+import com.example.voyage.data.trips.TripDisplayModel;
+import com.example.voyage.data.trips.TripSortFilter;
+import com.example.voyage.util.SchedulerProvider;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 
 public class TripsViewModel extends ViewModel {
 
+    // How long the list has to stay unchanged before seats are prefetched
+    private static final long PREFETCH_SETTLE_MILLIS = 750;
+
     private VoyageRepository voyageRepository;
+    private TripDisplayMapper tripDisplayMapper = new TripDisplayMapper();
+    private SchedulerProvider schedulers = SchedulerProvider.getInstance();
+    private SeatPrefetcher seatPrefetcher = SeatPrefetcher.getInstance();
+
+    private MediatorLiveData<List<TripDisplayModel>> displayTrips = new MediatorLiveData<>();
+    private LiveData<Resource<List<Trip>>> tripsSource;
+    private Disposable mapping = Disposables.disposed();
+    private Disposable prefetch = Disposables.disposed();
+    private CompositeDisposable searchDisposables = new CompositeDisposable();
+    private List<Trip> lastMappedTrips;
+    // The engine over the trips shown and how they are sorted and filtered. Main thread only
+    private TripSortFilter sortFilter;
+    private TripSortFilter.Query query = TripSortFilter.Query.DEFAULT;
 
     public TripsViewModel() {
         this.voyageRepository = VoyageRepository.getInstance();
     }
 
-    LiveData<List<Trip>> getTrips(String origin, String destination, String date) {
-        return voyageRepository.getTrips(origin, destination, date);
+    LiveData<List<TripDisplayModel>> getTrips(String origin, String destination, String date) {
+        if (tripsSource != null) {
+            displayTrips.removeSource(tripsSource);
+        }
+        // A new search replaces the previous one, stop it if it is still loading
+        searchDisposables.clear();
+        tripsSource = voyageRepository.getTrips(origin, destination, date, searchDisposables);
+        displayTrips.addSource(tripsSource, this::mapTrips);
+        return displayTrips;
+    }
+
+    /**
+     * Formats the trips and builds their sort keys on a background thread, so rows only have
+     * to set text when bound and a filter change never waits on parsing.
+     * Emits null when the search failed with nothing to show.
+     */
+    private void mapTrips(Resource<List<Trip>> resource) {
+        List<Trip> trips = resource.getData();
+        if (trips == null) {
+            if (resource.isError()) {
+                mapping.dispose();
+                sortFilter = null;
+                displayTrips.setValue(null);
+            }
+            return;
+        }
+        if (trips == lastMappedTrips) {
+            // Only the status changed, e.g. a refresh of the trips already shown
+            return;
+        }
+        lastMappedTrips = trips;
+        mapping.dispose();
+        mapping = Single.fromCallable(() -> TripSortFilter.of(tripDisplayMapper.map(trips)))
+                .subscribeOn(schedulers.computation())
+                .observeOn(schedulers.ui())
+                .subscribe(engine -> {
+                    sortFilter = engine;
+                    List<TripDisplayModel> models = applyQuery();
+                    prefetchSeats(busIdsOf(models, 0, SeatPrefetcher.MAX_BUSES));
+                }, Throwable::printStackTrace);
+    }
+
+    TripSortFilter.Query getQuery() {
+        return query;
+    }
+
+    /**
+     * Re-sorts and filters the loaded trips on the main thread, the server is not asked again.
+     */
+    void setQuery(TripSortFilter.Query query) {
+        this.query = query;
+        if (sortFilter != null) {
+            applyQuery();
+        }
+    }
+
+    /**
+     * Whether the search found trips, even if the query hides all of them.
+     */
+    boolean hasTrips() {
+        return sortFilter != null && sortFilter.size() > 0;
+    }
+
+    /**
+     * The highest price among the loaded trips in the seat class, 0 before they load.
+     */
+    int getMaxPrice(TripSortFilter.SeatClass seatClass) {
+        return sortFilter != null ? sortFilter.getMaxPrice(seatClass) : 0;
+    }
+
+    /**
+     * The lowest price among the loaded trips in the seat class, 0 before they load.
+     */
+    int getMinPrice(TripSortFilter.SeatClass seatClass) {
+        return sortFilter != null ? sortFilter.getMinPrice(seatClass) : 0;
+    }
+
+    private List<TripDisplayModel> applyQuery() {
+        List<TripDisplayModel> models = sortFilter.apply(query);
+        displayTrips.setValue(models);
+        return models;
+    }
+
+    /**
+     * Prefetches the seat maps of the given buses once the list has settled, a newer call
+     * replaces a pending one.
+     */
+    void prefetchSeats(List<Integer> busIds) {
+        prefetch.dispose();
+        prefetch = Completable.timer(PREFETCH_SETTLE_MILLIS, TimeUnit.MILLISECONDS,
+                schedulers.computation())
+                .observeOn(schedulers.ui())
+                .subscribe(() -> seatPrefetcher.prefetch(busIds, searchDisposables));
+    }
+
+    private static List<Integer> busIdsOf(List<TripDisplayModel> trips, int from, int to) {
+        List<Integer> busIds = new ArrayList<>();
+        for (int i = Math.max(from, 0); i < Math.min(to, trips.size()); i++) {
+            busIds.add(trips.get(i).getBusId());
+        }
+        return busIds;
+    }
+
+    @Override
+    protected void onCleared() {
+        searchDisposables.dispose();
+        mapping.dispose();
+        prefetch.dispose();
     }
 }
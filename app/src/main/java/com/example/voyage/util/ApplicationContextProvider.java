@@ -3,6 +3,10 @@ package com.example.voyage.util;
 import android.app.Application;
 import android.content.Context;
 
+import com.example.voyage.data.network.retrofit.VoyageClient;
+import com.example.voyage.data.repositories.OutboxSync;
+import com.example.voyage.fcm.VoyageMessagingService;
+
 public class ApplicationContextProvider extends Application {
     /**
      * Keeps a reference of the application context
@@ -13,6 +17,14 @@ public class ApplicationContextProvider extends Application {
     public void onCreate() {
         super.onCreate();
         sApplication = this;
+
+        // Start up work that the first screen does not need to wait for
+        PreferenceUtilities.preload(this);
+        VoyageClient.warmUp();
+        SchedulerProvider.getInstance().disk().scheduleDirect(
+                VoyageMessagingService::createNotificationChannel);
+        // Seat holds and payments left unanswered are sent again once online
+        OutboxSync.register(this);
     }
 
     private static Application getApplication() {
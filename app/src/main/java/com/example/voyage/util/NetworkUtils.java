@@ -1,5 +1,10 @@
 package com.example.voyage.util;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
 import android.util.Log;
 import android.widget.Toast;
 
@@ -12,6 +17,38 @@ public class NetworkUtils {
 
     private static final String LOG_TAG = NetworkUtils.class.getSimpleName();
 
+    // Below this estimated downstream bandwidth speculative requests are not worth it
+    private static final int MIN_PREFETCH_BANDWIDTH_KBPS = 1000;
+
+    /**
+     * Whether the active network is good for speculative requests: connected, not metered,
+     * no data saver, and fast enough where the platform can tell.
+     */
+    public static boolean isPrefetchAllowed(Context context) {
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return false;
+        }
+        NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+        if (networkInfo == null || !networkInfo.isConnected()
+                || connectivityManager.isActiveNetworkMetered()) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                && connectivityManager.getRestrictBackgroundStatus()
+                == ConnectivityManager.RESTRICT_BACKGROUND_STATUS_ENABLED) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            NetworkCapabilities capabilities = connectivityManager.getNetworkCapabilities(
+                    connectivityManager.getActiveNetwork());
+            return capabilities != null
+                    && capabilities.getLinkDownstreamBandwidthKbps() >= MIN_PREFETCH_BANDWIDTH_KBPS;
+        }
+        return true;
+    }
+
     public static void handleError(Throwable throwable) {
         if (throwable instanceof HttpException) {
             HttpException httpException = (HttpException) throwable;
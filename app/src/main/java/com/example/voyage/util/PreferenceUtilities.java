@@ -1,68 +1,221 @@
 package com.example.voyage.util;
 
+import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
-import com.example.voyage.R;
+import androidx.annotation.VisibleForTesting;
 
+import com.example.voyage.R;
+import com.example.voyage.auth.VoyageSession;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Session values kept in shared preferences. The file is read once, on the disk scheduler when
+ * {@link #preload(Context)} is called at process start, and reads are then served from memory.
+ * Writes update memory straight away and are batched into one commit on the disk scheduler.
+ */
 public class PreferenceUtilities {
     private static final String LOG_TAG = PreferenceUtilities.class.getSimpleName();
 
     private static final String PREF_USER_TOKEN = "VOYAGE_USER_TOKEN";
     private static final String PREF_FCM_TOKEN = "FCM_USER_TOKEN";
+    private static final String PREF_USER_SESSION = "VOYAGE_USER_SESSION";
 
-    public static String getUserToken(Context context) {
-        String sharedPrefsFile = context.getResources().getString(
-                R.string.preference_file_key);
+    public interface OnTokenChangedListener {
+        /**
+         * Called on the thread that changed the token, null when it was removed.
+         */
+        void onTokenChanged(String token);
+    }
+
+    private static final Object LOCK = new Object();
+    // Keeps flushes in order, so a later write never lands before an earlier one
+    private static final Object FLUSH_LOCK = new Object();
+
+    // Guarded by LOCK
+    private static SharedPreferences preferences;
+    private static String userToken;
+    private static String fcmToken;
+    private static VoyageSession session;
+    // Keys waiting to be written, a null value removes the key
+    private static final Map<String, String> pendingWrites = new HashMap<>();
+    private static boolean flushScheduled;
+
+    private static final CopyOnWriteArrayList<OnTokenChangedListener> tokenListeners =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Starts reading the preferences in the background so the first read does not hit the
+     * disk on the main thread.
+     */
+    public static void preload(Context context) {
+        Context applicationContext = context.getApplicationContext();
+        SchedulerProvider.getInstance().disk().scheduleDirect(() -> load(applicationContext));
+    }
+
+    public static void addTokenListener(OnTokenChangedListener listener) {
+        tokenListeners.addIfAbsent(listener);
+    }
+
+    public static void removeTokenListener(OnTokenChangedListener listener) {
+        tokenListeners.remove(listener);
+    }
 
-        SharedPreferences sharedPrefs = context.getSharedPreferences(
-                sharedPrefsFile, Context.MODE_PRIVATE);
+    /**
+     * Forgets the loaded preferences, pending writes and token listeners, so a test starts
+     * from the file of its own application.
+     */
+    @VisibleForTesting
+    public static void reset() {
+        synchronized (FLUSH_LOCK) {
+            synchronized (LOCK) {
+                preferences = null;
+                userToken = null;
+                fcmToken = null;
+                session = null;
+                pendingWrites.clear();
+                flushScheduled = false;
+            }
+        }
+        tokenListeners.clear();
+    }
 
-        return sharedPrefs.getString(PREF_USER_TOKEN, null);
+    public static String getUserToken(Context context) {
+        synchronized (LOCK) {
+            load(context);
+            return userToken;
+        }
     }
 
     public static void setUserToken(Context context, String token) {
-        String sharedPrefsFile = context.getResources().getString(
-                R.string.preference_file_key);
-
-        SharedPreferences sharedPref = context.getSharedPreferences(
-                sharedPrefsFile, Context.MODE_PRIVATE);
-
-        SharedPreferences.Editor editor = sharedPref.edit();
-        if (token == null) {
-            Log.d(LOG_TAG, "DELETING TOKEN");
-            editor.remove(PREF_USER_TOKEN);
-        } else {
-            editor.putString(PREF_USER_TOKEN, token);
+        boolean changed;
+        synchronized (LOCK) {
+            load(context);
+            if (token == null) {
+                Log.d(LOG_TAG, "DELETING TOKEN");
+            }
+            changed = token == null ? userToken != null : !token.equals(userToken);
+            userToken = token;
+            write(PREF_USER_TOKEN, token);
+        }
+        if (changed) {
+            for (OnTokenChangedListener listener : tokenListeners) {
+                listener.onTokenChanged(token);
+            }
         }
-        editor.apply();
     }
 
     public static String getPrefFcmToken(Context context) {
-        String sharedPrefsFile = context.getResources().getString(
-                R.string.preference_file_key);
+        synchronized (LOCK) {
+            load(context);
+            return fcmToken;
+        }
+    }
 
-        SharedPreferences sharedPrefs = context.getSharedPreferences(
-                sharedPrefsFile, Context.MODE_PRIVATE);
+    public static void saveFcmToken(Context context, String fcmToken) {
+        synchronized (LOCK) {
+            load(context);
+            if (fcmToken == null) {
+                Log.d("TAG", "DELETING FCM TOKEN");
+            }
+            PreferenceUtilities.fcmToken = fcmToken;
+            write(PREF_FCM_TOKEN, fcmToken);
+        }
+    }
 
-        return sharedPrefs.getString(PREF_FCM_TOKEN, null);
+    public static VoyageSession getSession(Context context) {
+        synchronized (LOCK) {
+            load(context);
+            return session;
+        }
     }
 
-    public static void saveFcmToken(Context context, String fcmToken) {
-        String sharedPrefsFile = context.getResources().getString(
-                R.string.preference_file_key);
-
-        SharedPreferences sharedPref = context.getSharedPreferences(
-                sharedPrefsFile, Context.MODE_PRIVATE);
-
-        SharedPreferences.Editor editor = sharedPref.edit();
-        if (fcmToken == null) {
-            Log.d("TAG", "DELETING FCM TOKEN");
-            editor.remove(PREF_FCM_TOKEN);
-        } else {
-            editor.putString(PREF_FCM_TOKEN, fcmToken);
+    public static void setSession(Context context, VoyageSession session) {
+        synchronized (LOCK) {
+            load(context);
+            if (session == null) {
+                Log.d(LOG_TAG, "DELETING SESSION");
+            }
+            PreferenceUtilities.session = session;
+            write(PREF_USER_SESSION, session != null ? new Gson().toJson(session) : null);
+        }
+    }
+
+    /**
+     * Reads the file the first time it is needed. A read on the main thread while the preload
+     * is still running waits for it instead of reading again.
+     */
+    private static void load(Context context) {
+        synchronized (LOCK) {
+            if (preferences != null) {
+                return;
+            }
+            String sharedPrefsFile = context.getResources().getString(
+                    R.string.preference_file_key);
+            SharedPreferences sharedPrefs = context.getSharedPreferences(
+                    sharedPrefsFile, Context.MODE_PRIVATE);
+
+            userToken = sharedPrefs.getString(PREF_USER_TOKEN, null);
+            fcmToken = sharedPrefs.getString(PREF_FCM_TOKEN, null);
+            session = sessionOf(sharedPrefs.getString(PREF_USER_SESSION, null));
+            preferences = sharedPrefs;
+        }
+    }
+
+    private static VoyageSession sessionOf(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return new Gson().fromJson(json, VoyageSession.class);
+        } catch (JsonParseException e) {
+            Log.d(LOG_TAG, "Ignoring unreadable session");
+            return null;
+        }
+    }
+
+    private static void write(String key, String value) {
+        pendingWrites.put(key, value);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SchedulerProvider.getInstance().disk().scheduleDirect(PreferenceUtilities::flush);
+        }
+    }
+
+    /**
+     * Writes every change made since the last flush in one commit.
+     */
+    @SuppressLint("ApplySharedPref")
+    private static void flush() {
+        synchronized (FLUSH_LOCK) {
+            SharedPreferences.Editor editor;
+            synchronized (LOCK) {
+                flushScheduled = false;
+                // Nothing left after a reset
+                if (pendingWrites.isEmpty()) {
+                    return;
+                }
+                editor = preferences.edit();
+                for (Map.Entry<String, String> write : pendingWrites.entrySet()) {
+                    if (write.getValue() == null) {
+                        editor.remove(write.getKey());
+                    } else {
+                        editor.putString(write.getKey(), write.getValue());
+                    }
+                }
+                pendingWrites.clear();
+            }
+            // Already off the main thread, commit so a failed write is reported
+            if (!editor.commit()) {
+                Log.e(LOG_TAG, "Could not write preferences");
+            }
         }
-        editor.apply();
     }
 }
@@ -0,0 +1,118 @@
+package com.example.voyage.util;
+
+import android.os.Process;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * The schedulers every repository, auth and view model chain runs on.
+ * <ul>
+ * <li>{@link #network()} a small fixed pool for http calls, so bursts and retries queue up
+ * instead of each getting a thread</li>
+ * <li>{@link #prefetch()} one low priority thread for speculative http calls, so they never
+ * hold a network thread a screen is waiting for</li>
+ * <li>{@link #computation()} for mapping and other cpu work</li>
+ * <li>{@link #disk()} for database and file access</li>
+ * <li>{@link #ui()} the main thread, switched to once where a chain reaches LiveData</li>
+ * </ul>
+ * Tests can swap in {@link #trampoline()} to run everything on the calling thread.
+ */
+public class SchedulerProvider {
+
+    private static final int NETWORK_THREADS = 4;
+
+    private static SchedulerProvider instance;
+
+    private final Scheduler network;
+    private final Scheduler prefetch;
+    private final Scheduler computation;
+    private final Scheduler disk;
+    private final Scheduler ui;
+
+    /**
+     * A provider whose prefetches share the network scheduler, e.g. for tests.
+     */
+    public SchedulerProvider(Scheduler network, Scheduler computation, Scheduler disk,
+                             Scheduler ui) {
+        this(network, network, computation, disk, ui);
+    }
+
+    public SchedulerProvider(Scheduler network, Scheduler prefetch, Scheduler computation,
+                             Scheduler disk, Scheduler ui) {
+        this.network = network;
+        this.prefetch = prefetch;
+        this.computation = computation;
+        this.disk = disk;
+        this.ui = ui;
+    }
+
+    public static synchronized SchedulerProvider getInstance() {
+        if (instance == null) {
+            instance = new SchedulerProvider(
+                    Schedulers.from(executor("voyage-network", NETWORK_THREADS,
+                            Process.THREAD_PRIORITY_BACKGROUND)),
+                    Schedulers.from(executor("voyage-prefetch", 1,
+                            Process.THREAD_PRIORITY_LOWEST)),
+                    Schedulers.computation(),
+                    Schedulers.io(),
+                    AndroidSchedulers.mainThread());
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the shared provider. Must be called before the repositories are created.
+     */
+    @VisibleForTesting
+    public static synchronized void setInstance(SchedulerProvider schedulerProvider) {
+        instance = schedulerProvider;
+    }
+
+    @VisibleForTesting
+    public static SchedulerProvider trampoline() {
+        return new SchedulerProvider(Schedulers.trampoline(), Schedulers.trampoline(),
+                Schedulers.trampoline(), Schedulers.trampoline());
+    }
+
+    public Scheduler network() {
+        return network;
+    }
+
+    public Scheduler prefetch() {
+        return prefetch;
+    }
+
+    public Scheduler computation() {
+        return computation;
+    }
+
+    public Scheduler disk() {
+        return disk;
+    }
+
+    public Scheduler ui() {
+        return ui;
+    }
+
+    private static ExecutorService executor(String name, int threads, int priority) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(priority);
+                runnable.run();
+            }, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.voyage.auth;
+
+import com.example.voyage.data.network.VoyageServerRule;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.PreferenceUtilities;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.observers.TestObserver;
+
+import static com.example.voyage.data.network.VoyageServerRule.dropConnection;
+import static com.example.voyage.data.network.VoyageServerRule.latency;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks how {@link VoyageAuth#currentUser()} loads the user from {@link VoyageServerRule}
+ * when no stored session can be trusted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class VoyageAuthNetworkTest {
+
+    private static final long LATENCY_MILLIS = 400;
+
+    @Rule
+    public final VoyageServerRule server = new VoyageServerRule();
+
+    @Test
+    public void currentUserWithoutSessionIsFetchedOnceAndStored() throws Exception {
+        server.signIn(null);
+        server.enqueue("user", latency(LATENCY_MILLIS));
+
+        long start = System.nanoTime();
+        VoyageUser user = awaitUser(VoyageAuth.getInstance().currentUser().test());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("Amina", user.getFirstName());
+        // The stored token is kept, not the one in the response
+        assertEquals(VoyageServerRule.TOKEN, user.getToken());
+        assertTrue("Took " + elapsed + " ms", elapsed >= LATENCY_MILLIS);
+        assertTrue(PreferenceUtilities.getSession(ApplicationContextProvider.getContext())
+                .isValidFor(VoyageServerRule.TOKEN));
+
+        assertSame(user, awaitUser(VoyageAuth.getInstance().currentUser().test()));
+        assertEquals(1, server.requestCount("user"));
+    }
+
+    @Test
+    public void currentUserRecoversFromDroppedConnection() throws Exception {
+        server.signIn(null);
+        server.enqueue("user", dropConnection());
+
+        VoyageUser user = awaitUser(VoyageAuth.getInstance().currentUser().test());
+
+        assertNull(user.getThrowable());
+        assertEquals("amina@example.com", user.getEmail());
+        assertEquals(2, server.requestCount("user"));
+    }
+
+    @Test
+    public void currentUserThatKeepsFailingIsNotStoredAsSession() throws Exception {
+        server.signIn(null);
+        // The first request and every retry
+        for (int i = 0; i < 4; i++) {
+            server.enqueue("user", dropConnection());
+        }
+
+        VoyageUser user = awaitUser(VoyageAuth.getInstance().currentUser().test());
+
+        assertNotNull(user.getThrowable());
+        assertEquals(4, server.requestCount("user"));
+        assertNull(PreferenceUtilities.getSession(ApplicationContextProvider.getContext()));
+    }
+
+    private VoyageUser awaitUser(TestObserver<VoyageUser> observer) throws Exception {
+        server.idleUntil("the user", () -> observer.valueCount() > 0);
+        return observer.values().get(0);
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.voyage.data.network;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+
+import com.example.voyage.auth.VoyageAuth;
+import com.example.voyage.auth.VoyageSession;
+import com.example.voyage.data.local.BookingStore;
+import com.example.voyage.data.local.VoyageCache;
+import com.example.voyage.data.local.VoyageDatabaseHelper;
+import com.example.voyage.data.local.VoyageOutbox;
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+import com.example.voyage.data.network.retrofit.RetryPolicy;
+import com.example.voyage.data.network.retrofit.VoyageClient;
+import com.example.voyage.data.repositories.Resource;
+import com.example.voyage.data.repositories.VoyageRepository;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.PreferenceUtilities;
+import com.example.voyage.util.SchedulerProvider;
+
+import org.junit.rules.ExternalResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Runs a local server in place of the Voyage API and points the app at it. Every endpoint
+ * answers with its recorded response from {@code src/test/resources/responses}, faults queued
+ * with {@link #enqueue} change the next answers of one endpoint.
+ * <p>
+ * The repository, auth and the stores they use are built fresh for each test, signed in with a
+ * stored session. Http calls run on real threads, the main thread work runs while the test
+ * waits in {@link #idleUntil}.
+ */
+public class VoyageServerRule extends ExternalResource {
+
+    public static final String TOKEN = "test-token";
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    private static final long POLL_MILLIS = 5;
+
+    // Singletons holding a scheduler, the database or the http client of an earlier test
+    private static final Class<?>[] SINGLETONS = {
+            VoyageRepository.class,
+            VoyageAuth.class,
+            RetryPolicy.class,
+            MetricsRegistry.class,
+            VoyageCache.class,
+            VoyageOutbox.class,
+            BookingStore.class,
+            VoyageDatabaseHelper.class
+    };
+
+    /**
+     * Changes one response of the server.
+     */
+    public interface Fault {
+        void applyTo(MockResponse response);
+    }
+
+    private final MockWebServer server = new MockWebServer();
+
+    // Guarded by this
+    private final Map<String, Deque<Fault[]>> faults = new HashMap<>();
+    private final Map<String, List<RecordedRequest>> requests = new HashMap<>();
+
+    @Override
+    protected void before() throws Throwable {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+        server.start();
+
+        SchedulerProvider.setInstance(new SchedulerProvider(
+                Schedulers.io(),
+                Schedulers.computation(),
+                Schedulers.trampoline(),
+                AndroidSchedulers.from(Looper.getMainLooper())));
+        resetSingletons();
+        // An ip literal has one route, OkHttp does not quietly resend a dropped request to
+        // another address
+        VoyageClient.setBaseUrl("http://127.0.0.1:" + server.getPort() + "/api/");
+
+        signIn(new VoyageSession(TOKEN, "Amina", "Otieno", "amina@example.com",
+                System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+    }
+
+    @Override
+    protected void after() {
+        try {
+            server.shutdown();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        SchedulerProvider.setInstance(null);
+    }
+
+    /**
+     * Stores the token and session, a null session makes auth ask the server for the user.
+     */
+    public void signIn(VoyageSession session) {
+        PreferenceUtilities.setUserToken(ApplicationContextProvider.getContext(), TOKEN);
+        PreferenceUtilities.setSession(ApplicationContextProvider.getContext(), session);
+    }
+
+    /**
+     * Queues the faults for the next request to the endpoint. Each call queues one response.
+     *
+     * @param endpoint the recorded response name, e.g. {@code "seat"} or {@code "pickSeat"}
+     */
+    public synchronized void enqueue(String endpoint, Fault... faults) {
+        this.faults.computeIfAbsent(endpoint, key -> new ArrayDeque<>()).add(faults);
+    }
+
+    public synchronized int requestCount(String endpoint) {
+        return requests(endpoint).size();
+    }
+
+    public synchronized List<RecordedRequest> requests(String endpoint) {
+        List<RecordedRequest> recorded = requests.get(endpoint);
+        return recorded != null ? new ArrayList<>(recorded) : Collections.emptyList();
+    }
+
+    /**
+     * The full url of a path on the server, for endpoints called with one such as pay.
+     */
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.getPort() + "/api/" + path;
+    }
+
+    /**
+     * Runs the main thread's queued work until the condition holds, failing the test when it
+     * does not within the timeout.
+     */
+    public void idleUntil(String what, Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            shadowOf(Looper.getMainLooper()).idle();
+            if (condition.call()) {
+                return;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for " + what);
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Waits for the result to stop loading and returns it.
+     */
+    public <T> Resource<T> await(LiveData<Resource<T>> result) throws Exception {
+        idleUntil("a result", () -> result.getValue() != null && !result.getValue().isLoading());
+        return result.getValue();
+    }
+
+    public static String recorded(String endpoint) {
+        InputStream in = VoyageServerRule.class.getClassLoader()
+                .getResourceAsStream("responses/" + endpoint + ".json");
+        if (in == null) {
+            return null;
+        }
+        try (Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+    /**
+     * Delays the response headers, as a slow server or a long round trip would.
+     */
+    public static Fault latency(long millis) {
+        return response -> response.setHeadersDelay(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends the body at the rate, in ten chunks a second.
+     */
+    public static Fault throttle(int bytesPerSecond) {
+        return response -> response.throttleBody(bytesPerSecond / 10, 100,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the request and closes the connection without answering, the request reaches the
+     * server but the client never learns its outcome.
+     */
+    public static Fault dropConnection() {
+        return response -> response.setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST);
+    }
+
+    public static Fault status(int code) {
+        return response -> response.setResponseCode(code)
+                .setBody("{\"message\":\"HTTP " + code + "\"}");
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        String endpoint = endpointOf(request);
+        Fault[] queued;
+        synchronized (this) {
+            requests.computeIfAbsent(endpoint, key -> new ArrayList<>()).add(request);
+            Deque<Fault[]> pending = faults.get(endpoint);
+            queued = pending != null ? pending.poll() : null;
+        }
+
+        String body = recorded(endpoint);
+        if (body == null) {
+            return new MockResponse().setResponseCode(404);
+        }
+        MockResponse response = new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody(body);
+        if (queued != null) {
+            for (Fault fault : queued) {
+                fault.applyTo(response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Names a request after its endpoint: {@code /api/seat/12} is {@code seat} and
+     * {@code /api/bookingPhase/pickSeat} is {@code pickSeat}.
+     */
+    private static String endpointOf(RecordedRequest request) {
+        String path = request.getPath();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        String[] segments = path.replaceFirst("^/api/", "").split("/");
+        return "seat".equals(segments[0]) ? segments[0] : segments[segments.length - 1];
+    }
+
+    private static void resetSingletons() throws ReflectiveOperationException {
+        for (Class<?> type : SINGLETONS) {
+            Field instance = type.getDeclaredField("instance");
+            instance.setAccessible(true);
+            instance.set(null, null);
+        }
+        // Drops the token listener of the earlier test's auth along with its preferences
+        PreferenceUtilities.reset();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.voyage.data.network.retrofit;
+
+import com.example.voyage.data.network.metrics.EndpointMetrics;
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class RetryPolicyTest {
+
+    private static final String ENDPOINT = "schedule";
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private MetricsRegistry metricsRegistry;
+    private RetryPolicy retryPolicy;
+
+    @Before
+    public void setUp() {
+        metricsRegistry = MetricsRegistry.getInstance();
+        metricsRegistry.clear();
+        retryPolicy = new RetryPolicy(metricsRegistry, scheduler);
+    }
+
+    @Test
+    public void transientCodes() {
+        for (int code : new int[]{408, 429, 502, 503, 504}) {
+            assertTrue(String.valueOf(code), RetryPolicy.isTransient(code));
+        }
+        for (int code : new int[]{200, 304, 400, 401, 404, 409, 500}) {
+            assertFalse(String.valueOf(code), RetryPolicy.isTransient(code));
+        }
+    }
+
+    @Test
+    public void delayIsCapped() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(RetryPolicy.delayMillis(1) <= 500);
+            assertTrue(RetryPolicy.delayMillis(3) <= 2000);
+            assertTrue(RetryPolicy.delayMillis(40) <= 8000);
+            assertTrue(RetryPolicy.delayMillis(40) >= 0);
+        }
+    }
+
+    @Test
+    public void networkErrorIsRetriedThreeTimesThenPassedOn() {
+        TestObserver<Response<String>> observer = run(failing(new IOException("reset")));
+
+        observer.assertError(IOException.class);
+        assertEquals(4, subscriptions.get());
+        assertEquals(3, metrics().getRetries());
+    }
+
+    @Test
+    public void transientResponseIsHandedOnAfterTheLastRetry() {
+        TestObserver<Response<String>> observer = run(responding(503));
+
+        observer.assertValue(response -> response.code() == 503);
+        assertEquals(4, subscriptions.get());
+    }
+
+    @Test
+    public void transientResponseFollowedBySuccess() {
+        Single<Response<String>> upstream = Single.defer(() ->
+                Single.just(subscriptions.incrementAndGet() == 1 ? response(503) : response(200)));
+
+        TestObserver<Response<String>> observer = run(upstream);
+
+        observer.assertValue(response -> response.code() == 200);
+        assertEquals(2, subscriptions.get());
+        assertEquals(1, metrics().getRetries());
+    }
+
+    @Test
+    public void otherFailuresAreNotRetried() {
+        run(responding(404)).assertValue(response -> response.code() == 404);
+        assertEquals(1, subscriptions.get());
+
+        subscriptions.set(0);
+        run(failing(new IllegalStateException())).assertError(IllegalStateException.class);
+        assertEquals(1, subscriptions.get());
+        assertEquals(0, metrics().getRetries());
+    }
+
+    @Test
+    public void budgetStopsRetriesAndSuccessesEarnItBack() {
+        // Ten tokens: three calls spend three each and the fourth gets one retry
+        for (int i = 0; i < 3; i++) {
+            run(failing(new IOException()));
+        }
+        subscriptions.set(0);
+        run(failing(new IOException()));
+        assertEquals(2, subscriptions.get());
+
+        subscriptions.set(0);
+        run(failing(new IOException()));
+        assertEquals(1, subscriptions.get());
+        assertEquals(2, metrics().getRetriesDenied());
+
+        // A tenth of a token each, enough for one more retry
+        for (int i = 0; i < 15; i++) {
+            run(responding(200));
+        }
+        subscriptions.set(0);
+        run(failing(new IOException()));
+        assertEquals(2, subscriptions.get());
+    }
+
+    private TestObserver<Response<String>> run(Single<Response<String>> upstream) {
+        TestObserver<Response<String>> observer =
+                upstream.compose(retryPolicy.<String>retrying(ENDPOINT)).test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        observer.assertTerminated();
+        return observer;
+    }
+
+    private Single<Response<String>> failing(Throwable error) {
+        return Single.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Single.error(error);
+        });
+    }
+
+    private Single<Response<String>> responding(int code) {
+        return Single.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Single.just(response(code));
+        });
+    }
+
+    private static Response<String> response(int code) {
+        if (code < 400) {
+            return Response.success("[]");
+        }
+        return Response.error(code,
+                ResponseBody.create(MediaType.parse("application/json"), "{}"));
+    }
+
+    private EndpointMetrics metrics() {
+        return metricsRegistry.endpoint(ENDPOINT);
+    }
+}
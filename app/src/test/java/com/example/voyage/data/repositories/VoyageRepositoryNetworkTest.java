@@ -0,0 +1,255 @@
+package com.example.voyage.data.repositories;
+
+import androidx.lifecycle.LiveData;
+
+import com.example.voyage.auth.VoyageAuth;
+import com.example.voyage.data.local.OutboxEntry;
+import com.example.voyage.data.local.VoyageOutbox;
+import com.example.voyage.data.models.PayDetails;
+import com.example.voyage.data.models.Schedule;
+import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.network.VoyageServerRule;
+import com.example.voyage.data.network.metrics.MetricsRegistry;
+import com.example.voyage.data.network.retrofit.VoyageService;
+import com.example.voyage.data.seats.SeatMap;
+import com.example.voyage.util.ApplicationContextProvider;
+import com.example.voyage.util.PreferenceUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.CompositeDisposable;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.HttpException;
+
+import static com.example.voyage.data.network.VoyageServerRule.dropConnection;
+import static com.example.voyage.data.network.VoyageServerRule.latency;
+import static com.example.voyage.data.network.VoyageServerRule.status;
+import static com.example.voyage.data.network.VoyageServerRule.throttle;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs each repository method against {@link VoyageServerRule} with a fault injected, checking
+ * how long the result takes, how many requests reach the server and how the repository
+ * recovers.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class VoyageRepositoryNetworkTest {
+
+    private static final long LATENCY_MILLIS = 400;
+    private static final int BYTES_PER_SECOND = 2048;
+    // Room for building the client and scheduling on a slow machine
+    private static final long SLACK_MILLIS = 3000;
+
+    @Rule
+    public final VoyageServerRule server = new VoyageServerRule();
+
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private VoyageRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = VoyageRepository.getInstance();
+    }
+
+    @After
+    public void tearDown() {
+        disposables.clear();
+    }
+
+    @Test
+    public void schedulesWaitOutLatencyOnceThenComeFromTheCache() throws Exception {
+        server.enqueue("schedule", latency(LATENCY_MILLIS));
+
+        long start = System.nanoTime();
+        Resource<List<Schedule>> fetched = server.await(repository.getSchedules(disposables));
+        long elapsed = millisSince(start);
+
+        assertTrue(fetched.isSuccess());
+        assertEquals(4, fetched.getData().size());
+        assertTakes(LATENCY_MILLIS, elapsed);
+        assertEquals(1, server.requestCount("schedule"));
+
+        Resource<List<Schedule>> cached = server.await(repository.getSchedules(disposables));
+
+        assertTrue(cached.isSuccess());
+        assertEquals(4, cached.getData().size());
+        assertEquals(1, server.requestCount("schedule"));
+    }
+
+    @Test
+    public void schedulesRejectedWith401EndTheSessionWithoutRetrying() throws Exception {
+        server.enqueue("schedule", status(401));
+
+        Resource<List<Schedule>> result = server.await(repository.getSchedules(disposables));
+
+        assertTrue(result.isError());
+        assertEquals(401, ((HttpException) result.getError()).code());
+        assertEquals(1, server.requestCount("schedule"));
+        assertNull(PreferenceUtilities.getUserToken(ApplicationContextProvider.getContext()));
+        assertNull(VoyageAuth.getInstance().currentUser());
+    }
+
+    @Test
+    public void tripsUnderThrottledBandwidthShareOneRequest() throws Exception {
+        server.enqueue("trip", throttle(BYTES_PER_SECOND));
+
+        long start = System.nanoTime();
+        LiveData<Resource<List<Trip>>> first =
+                repository.getTrips("Nairobi", "Mombasa", "2019-07-01", disposables);
+        LiveData<Resource<List<Trip>>> second =
+                repository.getTrips("Nairobi", "Mombasa", "2019-07-01", disposables);
+        Resource<List<Trip>> result = server.await(first);
+        long elapsed = millisSince(start);
+
+        assertTrue(result.isSuccess());
+        assertEquals(4, result.getData().size());
+        assertTrue(second.getValue().isSuccess());
+        // The body goes out in chunks of a tenth of the rate, with a pause after each full one
+        int bodyBytes = VoyageServerRule.recorded("trip").getBytes(StandardCharsets.UTF_8).length;
+        long transferMillis = (bodyBytes - 1) / (BYTES_PER_SECOND / 10) * 100L;
+        assertTakes(transferMillis, elapsed);
+        assertEquals(1, server.requestCount("trip"));
+        assertEquals(1, repository.getRequestCoalescer().getCoalescedCount());
+    }
+
+    @Test
+    public void seatsRecoverFromDroppedConnection() throws Exception {
+        server.enqueue("seat", dropConnection());
+
+        Resource<SeatMap> result = server.await(repository.getSeats(12, disposables));
+
+        assertTrue(result.isSuccess());
+        assertEquals(44, result.getData().getSeatCount());
+        assertEquals(2, server.requestCount("seat"));
+        assertEquals("/api/seat/12", server.requests("seat").get(1).getPath());
+        assertEquals(1, MetricsRegistry.getInstance().endpoint("seat/{busId}").getRetries());
+    }
+
+    @Test
+    public void pickSeatIsNotResentAfterDroppedConnectionUntilReplayed() throws Exception {
+        server.enqueue("pickSeat", dropConnection());
+
+        LiveData<Resource<PayDetails>> payDetails =
+                repository.pickSeat(1, 9, 101, seats(4, 5), disposables);
+        Resource<PayDetails> failed = server.await(payDetails);
+
+        assertTrue(failed.isError());
+        assertTrue(failed.getError() instanceof IOException);
+        assertEquals(1, server.requestCount("pickSeat"));
+
+        List<OutboxEntry> pending = VoyageOutbox.getInstance().pending().blockingGet();
+        assertEquals(1, pending.size());
+
+        repository.replayOutbox(pending);
+        server.idleUntil("the replayed reservation", () -> payDetails.getValue().isSuccess());
+
+        assertEquals(3600, payDetails.getValue().getData().getTotalPrice());
+        List<RecordedRequest> sent = server.requests("pickSeat");
+        assertEquals(2, sent.size());
+        String key = sent.get(0).getHeader(VoyageService.IDEMPOTENCY_KEY);
+        assertNotNull(key);
+        assertEquals(key, sent.get(1).getHeader(VoyageService.IDEMPOTENCY_KEY));
+        assertTrue(VoyageOutbox.getInstance().pending().blockingGet().isEmpty());
+    }
+
+    @Test
+    public void pickSeatAskedAgainIsNotSentPastTheAttemptLimit() throws Exception {
+        for (int attempt = 1; attempt <= 5; attempt++) {
+            server.enqueue("pickSeat", dropConnection());
+            Resource<PayDetails> failed =
+                    server.await(repository.pickSeat(1, 9, 101, seats(4, 5), disposables));
+            assertTrue(failed.getError() instanceof IOException);
+            assertEquals(attempt, server.requestCount("pickSeat"));
+        }
+
+        Resource<PayDetails> refused =
+                server.await(repository.pickSeat(1, 9, 101, seats(4, 5), disposables));
+
+        assertTrue(refused.getError() instanceof VoyageOutbox.AttemptsExhaustedException);
+        assertEquals(5, server.requestCount("pickSeat"));
+        assertEquals(1, server.requests("pickSeat").stream()
+                .map(request -> request.getHeader(VoyageService.IDEMPOTENCY_KEY))
+                .distinct().count());
+    }
+
+    @Test
+    public void pickSeatRejectedWith401IsSettled() throws Exception {
+        server.enqueue("pickSeat", status(401));
+
+        Resource<PayDetails> result =
+                server.await(repository.pickSeat(1, 9, 101, seats(4, 5), disposables));
+
+        assertTrue(result.isError());
+        assertEquals(401, ((HttpException) result.getError()).code());
+        assertEquals(1, server.requestCount("pickSeat"));
+        assertTrue(VoyageOutbox.getInstance().pending().blockingGet().isEmpty());
+        assertNull(PreferenceUtilities.getUserToken(ApplicationContextProvider.getContext()));
+    }
+
+    @Test
+    public void payWaitsOutLatencyAndIsSentOnce() throws Exception {
+        server.enqueue("pay", latency(LATENCY_MILLIS));
+
+        long start = System.nanoTime();
+        Resource<Integer> result = server.await(
+                repository.pay(server.url("pay"), "0712345678", 101, 1, 9, seats(4, 5),
+                        disposables));
+        long elapsed = millisSince(start);
+
+        assertTrue(result.isSuccess());
+        assertEquals(200, (int) result.getData());
+        assertTakes(LATENCY_MILLIS, elapsed);
+        assertEquals(1, server.requestCount("pay"));
+        RecordedRequest request = server.requests("pay").get(0);
+        assertEquals("Bearer " + VoyageServerRule.TOKEN, request.getHeader("Authorization"));
+        assertNotNull(request.getHeader(VoyageService.IDEMPOTENCY_KEY));
+        assertTrue(VoyageOutbox.getInstance().pending().blockingGet().isEmpty());
+    }
+
+    @Test
+    public void payKeptQueuedAfterTransientStatus() throws Exception {
+        server.enqueue("pay", status(503));
+
+        Resource<Integer> result = server.await(
+                repository.pay(server.url("pay"), "0712345678", 101, 1, 9, seats(4, 5),
+                        disposables));
+
+        assertTrue(result.isError());
+        assertEquals(503, ((HttpException) result.getError()).code());
+        // Never retried on its own, a payment prompt must not be sent twice by accident
+        assertEquals(1, server.requestCount("pay"));
+        assertEquals(1, VoyageOutbox.getInstance().pending().blockingGet().size());
+    }
+
+    private static ArrayList<Integer> seats(Integer... ids) {
+        return new ArrayList<>(Arrays.asList(ids));
+    }
+
+    private static long millisSince(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static void assertTakes(long expectedMillis, long elapsedMillis) {
+        assertTrue("Took " + elapsedMillis + " ms, expected at least " + expectedMillis,
+                elapsedMillis >= expectedMillis);
+        assertTrue("Took " + elapsedMillis + " ms, expected about " + expectedMillis,
+                elapsedMillis < expectedMillis + SLACK_MILLIS);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.voyage.benchmark;
+
+import com.example.voyage.data.json.VoyageGson;
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.Trip;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding trip and seat lists with the streaming adapters from {@link VoyageGson}, against
+ * Gson's reflective adapters as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonDecodingBenchmark {
+
+    private static final Type TRIP_LIST_TYPE = new TypeToken<List<Trip>>() {
+    }.getType();
+    private static final Type SEAT_LIST_TYPE = new TypeToken<List<Seat>>() {
+    }.getType();
+
+    // A typical search, and a busy route on a holiday
+    @Param({"20", "500"})
+    public int trips;
+
+    // A 2+2 coach, and a whole fleet's seat maps at once
+    @Param({"48", "2000"})
+    public int seats;
+
+    private String tripsJson;
+    private String seatsJson;
+    private Gson streaming;
+    private Gson reflective;
+
+    @Setup
+    public void setUp() {
+        tripsJson = Payloads.tripsJson(trips);
+        seatsJson = Payloads.seatsJson(seats);
+        streaming = VoyageGson.create();
+        reflective = new Gson();
+    }
+
+    @Benchmark
+    public List<Trip> tripsStreaming() {
+        return streaming.fromJson(tripsJson, TRIP_LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<Trip> tripsReflective() {
+        return reflective.fromJson(tripsJson, TRIP_LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<Seat> seatsStreaming() {
+        return streaming.fromJson(seatsJson, SEAT_LIST_TYPE);
+    }
+
+    @Benchmark
+    public List<Seat> seatsReflective() {
+        return reflective.fromJson(seatsJson, SEAT_LIST_TYPE);
+    }
+}
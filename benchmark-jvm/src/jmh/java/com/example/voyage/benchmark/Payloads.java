@@ -0,0 +1,91 @@
+package com.example.voyage.benchmark;
+
+import com.example.voyage.data.models.Schedule;
+import com.example.voyage.data.models.Seat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic api payloads shaped like the server's, generated from the index so every run and
+ * every commit measures the same data.
+ */
+final class Payloads {
+
+    private static final String[] STOPS = {
+            "Nairobi", "Nairobi CBD", "Naivasha", "Nakuru", "Kisumu", "Kericho", "Eldoret",
+            "Mombasa", "Malindi", "Voi", "Mtito Andei", "Machakos", "Thika", "Nyeri", "Nanyuki",
+            "Meru", "Embu", "Kitale", "Bungoma", "Kakamega", "Busia", "Migori", "Kisii", "Narok"
+    };
+
+    private Payloads() {
+    }
+
+    static String tripsJson(int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            int hour = i % 18;
+            builder.append("{\"id\":").append(i)
+                    .append(",\"origin\":\"Nairobi\",\"destination\":\"Mombasa\"")
+                    .append(",\"busId\":").append(i % 40)
+                    .append(",\"dept_time\":\"2019-07-01 ").append(twoDigits(hour))
+                    .append(':').append(twoDigits(i % 4 * 15)).append(":00\"")
+                    .append(",\"arrival_time\":\"2019-07-01 ").append(twoDigits(hour + 6))
+                    .append(":30:00\"")
+                    .append(",\"prices\":{\"First class\":").append(1500 + i % 7 * 100)
+                    .append(",\"Second class\":").append(i % 9 == 0 ? 0 : 1000 + i % 5 * 100)
+                    .append('}')
+                    .append(",\"origins\":{\"id\":").append(i % 30)
+                    .append(",\"name\":\"Stage ").append(i % 30).append("\"}")
+                    .append(",\"destinations\":{\"id\":").append(30 + i % 30)
+                    .append(",\"name\":\"Stage ").append(30 + i % 30).append("\"}")
+                    .append(",\"created_at\":\"2019-06-01 10:00:00\"}");
+        }
+        return builder.append(']').toString();
+    }
+
+    static String seatsJson(int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i + 1)
+                    .append(",\"available\":").append(i % 3 == 0 ? 0 : 1).append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    static List<Seat> seats(int count) {
+        List<Seat> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seats.add(new Seat(i + 1, i % 3 == 0 ? 0 : 1));
+        }
+        return seats;
+    }
+
+    /**
+     * Schedules between every pair of stops on a spread of dates, so stops are used unevenly
+     * like on the real network.
+     */
+    static List<Schedule> schedules(int count) {
+        List<Schedule> schedules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String origin = STOPS[i % STOPS.length];
+            String destination = STOPS[(i * 7 + 3) % STOPS.length];
+            if (origin.equals(destination)) {
+                destination = STOPS[(i + 1) % STOPS.length];
+            }
+            String date = "2019-07-" + twoDigits(1 + i % 28);
+            schedules.add(new Schedule(origin, destination, date));
+        }
+        return schedules;
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.voyage.benchmark;
+
+import com.example.voyage.data.models.Schedule;
+import com.example.voyage.data.search.RouteIndex;
+import com.example.voyage.data.search.StopIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the route index from the schedules and the lookups the search screen makes on
+ * every keystroke and on search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchIndexBenchmark {
+
+    @Param({"200", "5000"})
+    public int schedules;
+
+    private List<Schedule> scheduleList;
+    private RouteIndex routeIndex;
+    private StopIndex originIndex;
+    private Schedule scheduled;
+
+    @Setup
+    public void setUp() {
+        scheduleList = Payloads.schedules(schedules);
+        routeIndex = RouteIndex.build(scheduleList);
+        originIndex = routeIndex.getOriginIndex();
+        // A search that passes every check, the slowest path
+        scheduled = scheduleList.get(scheduleList.size() / 2);
+    }
+
+    @Benchmark
+    public RouteIndex buildRouteIndex() {
+        return RouteIndex.build(scheduleList);
+    }
+
+    @Benchmark
+    public List<String> completeOnePrefix() {
+        return originIndex.complete("na", 8);
+    }
+
+    @Benchmark
+    public List<String> completeEmptyQuery() {
+        return originIndex.complete("", 8);
+    }
+
+    @Benchmark
+    public String resolveTypedStop() {
+        return originIndex.resolve("  nairobi  cbd ");
+    }
+
+    @Benchmark
+    public RouteIndex.SearchCheck checkSearch() {
+        return routeIndex.check(scheduled.getOrigin(), scheduled.getDestination(),
+                scheduled.getDate());
+    }
+}
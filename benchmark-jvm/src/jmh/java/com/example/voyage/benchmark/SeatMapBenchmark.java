@@ -0,0 +1,59 @@
+package com.example.voyage.benchmark;
+
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.seats.SeatLayout;
+import com.example.voyage.data.seats.SeatMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The seat row grouping VoyageRepository runs on every seat response, and the per row
+ * comparison the pick seat screen diffs with when a refreshed map arrives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SeatMapBenchmark {
+
+    @Param({"48", "200"})
+    public int seats;
+
+    private List<Seat> seatList;
+    private SeatMap previous;
+
+    @Setup
+    public void setUp() {
+        seatList = Payloads.seats(seats);
+        previous = SeatMap.fromSeats(seatList, SeatLayout.TWO_BY_TWO);
+        previous.toggleSelection(1);
+    }
+
+    @Benchmark
+    public SeatMap groupIntoRows() {
+        return SeatMap.fromSeats(seatList, SeatLayout.TWO_BY_TWO);
+    }
+
+    @Benchmark
+    public SeatMap groupKeepingSelection() {
+        return SeatMap.fromSeats(seatList, SeatLayout.TWO_BY_TWO).withSelectionOf(previous);
+    }
+
+    @Benchmark
+    public void diffRows(Blackhole blackhole) {
+        SeatMap refreshed = SeatMap.fromSeats(seatList, SeatLayout.TWO_BY_TWO);
+        for (int row = 0; row < refreshed.getRowCount(); row++) {
+            blackhole.consume(refreshed.rowDiffers(previous, row));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.voyage.benchmark;
+
+import com.example.voyage.data.json.VoyageGson;
+import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.trips.TripDisplayMapper;
+import com.example.voyage.data.trips.TripDisplayModel;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting trip times for the results list. {@link TripDisplayMapper} does it
+ * once per search with one pair of formats; the baseline does what TripsAdapter used to do in
+ * every bind, building both formats for each row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TripDisplayBenchmark {
+
+    @Param({"20", "500"})
+    public int trips;
+
+    private List<Trip> tripList;
+    private TripDisplayMapper mapper;
+
+    @Setup
+    public void setUp() {
+        tripList = VoyageGson.create().fromJson(Payloads.tripsJson(trips),
+                new TypeToken<List<Trip>>() {
+                }.getType());
+        mapper = new TripDisplayMapper();
+    }
+
+    @Benchmark
+    public List<TripDisplayModel> mapOncePerSearch() {
+        return mapper.map(tripList);
+    }
+
+    @Benchmark
+    public void formatInEveryBind(Blackhole blackhole) throws ParseException {
+        for (Trip trip : tripList) {
+            SimpleDateFormat originalTimeFormat =
+                    new SimpleDateFormat("yyyy-MM-dd kk:mm:ss", Locale.ENGLISH);
+            SimpleDateFormat screenTimeFormat = new SimpleDateFormat("h:mm a", Locale.ENGLISH);
+
+            Date departure = originalTimeFormat.parse(trip.getDepartureTime());
+            Date arrival = originalTimeFormat.parse(trip.getArrivalTime());
+            blackhole.consume(screenTimeFormat.format(departure)
+                    .concat(" - ")
+                    .concat(screenTimeFormat.format(arrival)));
+            blackhole.consume(String.valueOf(trip.getFirstClassPrice()).concat(" KES"));
+        }
+    }
+}
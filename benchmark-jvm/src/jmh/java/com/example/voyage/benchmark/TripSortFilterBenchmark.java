@@ -0,0 +1,68 @@
+package com.example.voyage.benchmark;
+
+import com.example.voyage.data.json.VoyageGson;
+import com.example.voyage.data.models.Trip;
+import com.example.voyage.data.trips.TripDisplayMapper;
+import com.example.voyage.data.trips.TripDisplayModel;
+import com.example.voyage.data.trips.TripSortFilter;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the sort keys once per search, and applying a filter change, which runs on the
+ * main thread and has to stay well inside a frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TripSortFilterBenchmark {
+
+    @Param({"20", "500"})
+    public int trips;
+
+    private List<TripDisplayModel> models;
+    private TripSortFilter sortFilter;
+    private TripSortFilter.Query byPrice;
+    private TripSortFilter.Query morningSecondClass;
+
+    @Setup
+    public void setUp() {
+        List<Trip> tripList = VoyageGson.create().fromJson(Payloads.tripsJson(trips),
+                new TypeToken<List<Trip>>() {
+                }.getType());
+        models = new TripDisplayMapper().map(tripList);
+        sortFilter = TripSortFilter.of(models);
+        byPrice = TripSortFilter.Query.DEFAULT.withSort(TripSortFilter.Sort.PRICE);
+        morningSecondClass = TripSortFilter.Query.DEFAULT
+                .withSort(TripSortFilter.Sort.DURATION)
+                .withSeatClass(TripSortFilter.SeatClass.SECOND)
+                .withDepartureWindow(TripSortFilter.DepartureWindow.MORNING)
+                .withMaxPrice(1300);
+    }
+
+    @Benchmark
+    public TripSortFilter buildKeys() {
+        return TripSortFilter.of(models);
+    }
+
+    @Benchmark
+    public List<TripDisplayModel> sortByPrice() {
+        return sortFilter.apply(byPrice);
+    }
+
+    @Benchmark
+    public List<TripDisplayModel> filterAndSort() {
+        return sortFilter.apply(morningSecondClass);
+    }
+}
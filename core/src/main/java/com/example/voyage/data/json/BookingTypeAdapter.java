@@ -0,0 +1,79 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.Booking;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class BookingTypeAdapter extends TypeAdapter<Booking> {
+
+    @Override
+    public void write(JsonWriter out, Booking booking) throws IOException {
+        if (booking == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(booking.getId());
+        out.name("destination").value(booking.getDestination());
+        out.name("origin").value(booking.getOrigin());
+        out.name("dateBooked").value(booking.getDateBooked());
+        out.name("amount").value(booking.getAmount());
+        out.name("confirmed").value(booking.getConfirmed());
+        out.name("updatedAt").value(booking.getUpdatedAt());
+        out.name("deleted").value(booking.isDeleted());
+        out.endObject();
+    }
+
+    @Override
+    public Booking read(JsonReader in) throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        int id = Booking.NO_ID;
+        String destination = null;
+        String origin = null;
+        String dateBooked = null;
+        String amount = null;
+        int confirmed = 0;
+        String updatedAt = null;
+        boolean deleted = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = JsonReaders.nextInt(in);
+                    break;
+                case "destination":
+                    destination = JsonReaders.nextString(in);
+                    break;
+                case "origin":
+                    origin = JsonReaders.nextString(in);
+                    break;
+                case "dateBooked":
+                    dateBooked = JsonReaders.nextString(in);
+                    break;
+                case "amount":
+                    amount = JsonReaders.nextString(in);
+                    break;
+                case "confirmed":
+                    confirmed = JsonReaders.nextInt(in);
+                    break;
+                case "updatedAt":
+                    updatedAt = JsonReaders.nextString(in);
+                    break;
+                case "deleted":
+                    deleted = JsonReaders.nextBoolean(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Booking(id, destination, origin, dateBooked, amount, confirmed, updatedAt,
+                deleted);
+    }
+}
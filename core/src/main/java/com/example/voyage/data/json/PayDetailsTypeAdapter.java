@@ -0,0 +1,109 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.PayDetails;
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.Stage;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PayDetailsTypeAdapter extends TypeAdapter<PayDetails> {
+
+    private final TypeAdapter<Stage> stageAdapter;
+    private final TypeAdapter<Seat> seatAdapter;
+
+    public PayDetailsTypeAdapter(TypeAdapter<Stage> stageAdapter, TypeAdapter<Seat> seatAdapter) {
+        this.stageAdapter = stageAdapter;
+        this.seatAdapter = seatAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, PayDetails payDetails) throws IOException {
+        if (payDetails == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("trip_id").value(payDetails.getTripId());
+        out.name("time").value(payDetails.getTime());
+        out.name("stages");
+        writeList(out, payDetails.getStages(), stageAdapter);
+        out.name("seats");
+        writeList(out, payDetails.getSeats(), seatAdapter);
+        out.name("total_price").value(payDetails.getTotalPrice());
+        out.name("pay_URL").value(payDetails.getPayUrl());
+        out.endObject();
+    }
+
+    @Override
+    public PayDetails read(JsonReader in) throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        int tripId = 0;
+        String time = null;
+        List<Stage> stages = null;
+        List<Seat> seats = null;
+        int totalPrice = 0;
+        String payUrl = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "trip_id":
+                    tripId = JsonReaders.nextInt(in);
+                    break;
+                case "time":
+                    time = JsonReaders.nextString(in);
+                    break;
+                case "stages":
+                    stages = readList(in, stageAdapter);
+                    break;
+                case "seats":
+                    seats = readList(in, seatAdapter);
+                    break;
+                case "total_price":
+                    totalPrice = JsonReaders.nextInt(in);
+                    break;
+                case "pay_URL":
+                    payUrl = JsonReaders.nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new PayDetails(tripId, time, stages, seats, totalPrice, payUrl);
+    }
+
+    private static <T> List<T> readList(JsonReader in, TypeAdapter<T> adapter)
+            throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        List<T> items = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            items.add(adapter.read(in));
+        }
+        in.endArray();
+        return items;
+    }
+
+    private static <T> void writeList(JsonWriter out, List<T> items, TypeAdapter<T> adapter)
+            throws IOException {
+        if (items == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (T item : items) {
+            adapter.write(out, item);
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.SeatPrice;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class SeatPriceTypeAdapter extends TypeAdapter<SeatPrice> {
+
+    @Override
+    public void write(JsonWriter out, SeatPrice seatPrice) throws IOException {
+        if (seatPrice == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("First class").value(seatPrice.getFirstClassSeatPrice());
+        out.name("Second class").value(seatPrice.getSecondClassSeatPrice());
+        out.endObject();
+    }
+
+    @Override
+    public SeatPrice read(JsonReader in) throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        int firstClass = 0;
+        int secondClass = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "First class":
+                    firstClass = JsonReaders.nextInt(in);
+                    break;
+                case "Second class":
+                    secondClass = JsonReaders.nextInt(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new SeatPrice(firstClass, secondClass);
+    }
+}
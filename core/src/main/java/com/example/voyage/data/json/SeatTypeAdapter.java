@@ -0,0 +1,56 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.Seat;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class SeatTypeAdapter extends TypeAdapter<Seat> {
+
+    @Override
+    public void write(JsonWriter out, Seat seat) throws IOException {
+        if (seat == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(seat.getId());
+        out.name("available").value(seat.getAvailable());
+        out.name("isAvailable").value(seat.isAvailable());
+        out.endObject();
+    }
+
+    @Override
+    public Seat read(JsonReader in) throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        int id = 0;
+        int available = 0;
+        boolean isAvailable = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = JsonReaders.nextInt(in);
+                    break;
+                case "available":
+                    available = JsonReaders.nextInt(in);
+                    break;
+                case "isAvailable":
+                    isAvailable = JsonReaders.nextBoolean(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Seat seat = new Seat(id, available);
+        seat.setSeatAvailable(isAvailable);
+        return seat;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.Stage;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class StageTypeAdapter extends TypeAdapter<Stage> {
+
+    @Override
+    public void write(JsonWriter out, Stage stage) throws IOException {
+        if (stage == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(stage.getId());
+        out.name("name").value(stage.getName());
+        out.endObject();
+    }
+
+    @Override
+    public Stage read(JsonReader in) throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        int id = 0;
+        String name = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = JsonReaders.nextInt(in);
+                    break;
+                case "name":
+                    name = JsonReaders.nextString(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Stage(id, name);
+    }
+}
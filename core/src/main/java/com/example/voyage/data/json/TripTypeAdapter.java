@@ -0,0 +1,98 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.SeatPrice;
+import com.example.voyage.data.models.Stage;
+import com.example.voyage.data.models.Trip;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+public class TripTypeAdapter extends TypeAdapter<Trip> {
+
+    private final TypeAdapter<Stage> stageAdapter;
+    private final TypeAdapter<SeatPrice> seatPriceAdapter;
+
+    public TripTypeAdapter(TypeAdapter<Stage> stageAdapter,
+                           TypeAdapter<SeatPrice> seatPriceAdapter) {
+        this.stageAdapter = stageAdapter;
+        this.seatPriceAdapter = seatPriceAdapter;
+    }
+
+    @Override
+    public void write(JsonWriter out, Trip trip) throws IOException {
+        if (trip == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(trip.getId());
+        out.name("origin").value(trip.getOrigin());
+        out.name("destination").value(trip.getDestination());
+        out.name("busId").value(trip.getBusId());
+        out.name("dept_time").value(trip.getDepartureTime());
+        out.name("arrival_time").value(trip.getArrivalTime());
+        out.name("prices");
+        seatPriceAdapter.write(out, trip.getSeatPrice());
+        out.name("origins");
+        stageAdapter.write(out, trip.getOriginStage());
+        out.name("destinations");
+        stageAdapter.write(out, trip.getDestinationStage());
+        out.endObject();
+    }
+
+    @Override
+    public Trip read(JsonReader in) throws IOException {
+        if (JsonReaders.skipNull(in)) {
+            return null;
+        }
+        int id = 0;
+        String origin = null;
+        String destination = null;
+        int busId = 0;
+        String departureTime = null;
+        String arrivalTime = null;
+        SeatPrice seatPrice = null;
+        Stage originStage = null;
+        Stage destinationStage = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    id = JsonReaders.nextInt(in);
+                    break;
+                case "origin":
+                    origin = JsonReaders.nextString(in);
+                    break;
+                case "destination":
+                    destination = JsonReaders.nextString(in);
+                    break;
+                case "busId":
+                    busId = JsonReaders.nextInt(in);
+                    break;
+                case "dept_time":
+                    departureTime = JsonReaders.nextString(in);
+                    break;
+                case "arrival_time":
+                    arrivalTime = JsonReaders.nextString(in);
+                    break;
+                case "prices":
+                    seatPrice = seatPriceAdapter.read(in);
+                    break;
+                case "origins":
+                    originStage = stageAdapter.read(in);
+                    break;
+                case "destinations":
+                    destinationStage = stageAdapter.read(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Trip(id, origin, destination, busId, departureTime, arrivalTime,
+                seatPrice, originStage, destinationStage);
+    }
+}
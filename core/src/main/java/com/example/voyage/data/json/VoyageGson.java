@@ -0,0 +1,44 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.Booking;
+import com.example.voyage.data.models.PayDetails;
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.SeatPrice;
+import com.example.voyage.data.models.Stage;
+import com.example.voyage.data.models.Trip;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Gson instance with streaming adapters for the high volume models so they are decoded
+ * without reflection. Everything else still goes through Gson's reflective adapters.
+ */
+public final class VoyageGson {
+
+    private static Gson instance;
+
+    private VoyageGson() {
+    }
+
+    public static synchronized Gson getInstance() {
+        if (instance == null) {
+            instance = create();
+        }
+        return instance;
+    }
+
+    public static Gson create() {
+        StageTypeAdapter stageAdapter = new StageTypeAdapter();
+        SeatPriceTypeAdapter seatPriceAdapter = new SeatPriceTypeAdapter();
+        SeatTypeAdapter seatAdapter = new SeatTypeAdapter();
+
+        return new GsonBuilder()
+                .registerTypeAdapter(Stage.class, stageAdapter)
+                .registerTypeAdapter(SeatPrice.class, seatPriceAdapter)
+                .registerTypeAdapter(Seat.class, seatAdapter)
+                .registerTypeAdapter(Trip.class, new TripTypeAdapter(stageAdapter, seatPriceAdapter))
+                .registerTypeAdapter(Booking.class, new BookingTypeAdapter())
+                .registerTypeAdapter(PayDetails.class, new PayDetailsTypeAdapter(stageAdapter, seatAdapter))
+                .create();
+    }
+}
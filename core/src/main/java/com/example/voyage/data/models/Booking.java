@@ -0,0 +1,72 @@
+package com.example.voyage.data.models;
+
+public class Booking {
+
+    // Read when the server leaves the id out, such a booking cannot be stored or merged
+    public static final int NO_ID = -1;
+
+    private int id;
+    private String destination;
+    private String origin;
+    private String dateBooked;
+    private String amount;
+    private int confirmed;
+    private String updatedAt;
+    private boolean deleted;
+
+    public Booking(int id, String destination, String origin, String dateBooked, String amount,
+                   int confirmed, String updatedAt, boolean deleted) {
+        this.id = id;
+        this.destination = destination;
+        this.origin = origin;
+        this.dateBooked = dateBooked;
+        this.amount = amount;
+        this.confirmed = confirmed;
+        this.updatedAt = updatedAt;
+        this.deleted = deleted;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean hasId() {
+        return id != NO_ID;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDateBooked() {
+        return dateBooked;
+    }
+
+    public String getAmount() {
+        return amount;
+    }
+
+    public int getConfirmed() {
+        return confirmed;
+    }
+
+    /**
+     * When the server last changed the booking, as "yyyy-MM-dd HH:mm:ss" so the values sort
+     * as text. Used as the sync cursor.
+     */
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Set on bookings removed since the last sync, they are only sent so the local copy can
+     * drop them.
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.voyage.data.models;
+
+import java.util.List;
+
+/**
+ * The lowest fare for one date of a route, across every trip and seat class.
+ */
+public class DayFare {
+
+    private final String date;
+    private final int lowestFare;
+    private final int tripCount;
+    private final boolean failed;
+
+    private DayFare(String date, int lowestFare, int tripCount, boolean failed) {
+        this.date = date;
+        this.lowestFare = lowestFare;
+        this.tripCount = tripCount;
+        this.failed = failed;
+    }
+
+    public static DayFare of(String date, List<Trip> trips) {
+        int lowest = 0;
+        for (Trip trip : trips) {
+            SeatPrice seatPrice = trip.getSeatPrice();
+            if (seatPrice == null) {
+                continue;
+            }
+            lowest = lower(lowest, seatPrice.getFirstClassSeatPrice());
+            lowest = lower(lowest, seatPrice.getSecondClassSeatPrice());
+        }
+        return new DayFare(date, lowest, trips.size(), false);
+    }
+
+    /**
+     * A date whose trips could not be loaded.
+     */
+    public static DayFare failed(String date) {
+        return new DayFare(date, 0, 0, true);
+    }
+
+    // A price of 0 means the class is not sold on the trip
+    private static int lower(int lowest, int price) {
+        if (price <= 0) {
+            return lowest;
+        }
+        return lowest == 0 ? price : Math.min(lowest, price);
+    }
+
+    /**
+     * The date as the api takes it, yyyy-MM-dd.
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * The lowest fare, 0 when no trip on the date has a price.
+     */
+    public int getLowestFare() {
+        return lowestFare;
+    }
+
+    public int getTripCount() {
+        return tripCount;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+}
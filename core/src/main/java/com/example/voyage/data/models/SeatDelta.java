@@ -0,0 +1,89 @@
+package com.example.voyage.data.models;
+
+import java.util.Map;
+
+/**
+ * Seat availability changes for one bus, sent as an FCM data message:
+ * <pre>
+ * type    = seat_delta
+ * bus_id  = 12
+ * version = 42
+ * seats   = 101:0,102:1
+ * </pre>
+ * Each entry is a seat id and its new availability. The version grows with every change the
+ * server makes to that bus, so older messages can be recognised and dropped.
+ */
+public class SeatDelta {
+
+    public static final String MESSAGE_TYPE = "seat_delta";
+
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_BUS_ID = "bus_id";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_SEATS = "seats";
+
+    private final int busId;
+    private final long version;
+    private final int[] seatIds;
+    private final boolean[] available;
+
+    public SeatDelta(int busId, long version, int[] seatIds, boolean[] available) {
+        this.busId = busId;
+        this.version = version;
+        this.seatIds = seatIds;
+        this.available = available;
+    }
+
+    public static boolean isSeatDelta(Map<String, String> data) {
+        return MESSAGE_TYPE.equals(data.get(KEY_TYPE));
+    }
+
+    /**
+     * Reads a delta from the data payload, or returns null when it is malformed.
+     */
+    public static SeatDelta fromData(Map<String, String> data) {
+        String busId = data.get(KEY_BUS_ID);
+        String version = data.get(KEY_VERSION);
+        String seats = data.get(KEY_SEATS);
+        if (busId == null || version == null || seats == null) {
+            return null;
+        }
+        try {
+            String[] entries = seats.isEmpty() ? new String[0] : seats.split(",");
+            int[] seatIds = new int[entries.length];
+            boolean[] available = new boolean[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                int separator = entries[i].indexOf(':');
+                if (separator < 0) {
+                    return null;
+                }
+                seatIds[i] = Integer.parseInt(entries[i].substring(0, separator).trim());
+                available[i] = Integer.parseInt(entries[i].substring(separator + 1).trim()) == 1;
+            }
+            return new SeatDelta(Integer.parseInt(busId.trim()), Long.parseLong(version.trim()),
+                    seatIds, available);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public int getBusId() {
+        return busId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    public int getSeatId(int position) {
+        return seatIds[position];
+    }
+
+    public boolean isAvailable(int position) {
+        return available[position];
+    }
+}
@@ -61,7 +61,7 @@ public class Trip {
         return arrivalTime;
     }
 
-    private SeatPrice getSeatPrice() {
+    public SeatPrice getSeatPrice() {
         return seatPrice;
     }
 
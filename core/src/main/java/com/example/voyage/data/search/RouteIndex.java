@@ -0,0 +1,177 @@
+package com.example.voyage.data.search;
+
+import com.example.voyage.data.models.Schedule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Routes the schedules offer, built once per schedule load. Answers which destinations can be
+ * reached from an origin and whether a search can have any result, without asking the server.
+ */
+public class RouteIndex {
+
+    public enum SearchCheck {
+        OK,
+        UNKNOWN_STOP,
+        NO_ROUTE,
+        NO_DEPARTURE_ON_DATE
+    }
+
+    // Length of the yyyy-MM-dd prefix of a schedule's departure time
+    private static final int DATE_LENGTH = 10;
+
+    private static final StopIndex EMPTY_STOPS = new StopIndex.Builder().build();
+
+    private final List<String> stops;
+    private final List<String> origins;
+    private final Map<String, List<String>> destinationsByOrigin;
+    private final Map<String, Set<String>> datesByRoute;
+    private final StopIndex originIndex;
+    private final Map<String, StopIndex> destinationIndexByOrigin;
+
+    private RouteIndex(List<String> stops, List<String> origins,
+                       Map<String, List<String>> destinationsByOrigin,
+                       Map<String, Set<String>> datesByRoute, StopIndex originIndex,
+                       Map<String, StopIndex> destinationIndexByOrigin) {
+        this.stops = stops;
+        this.origins = origins;
+        this.destinationsByOrigin = destinationsByOrigin;
+        this.datesByRoute = datesByRoute;
+        this.originIndex = originIndex;
+        this.destinationIndexByOrigin = destinationIndexByOrigin;
+    }
+
+    public static RouteIndex build(List<Schedule> schedules) {
+        Set<String> stops = new TreeSet<>();
+        Map<String, Set<String>> adjacency = new HashMap<>();
+        Map<String, Set<String>> datesByRoute = new HashMap<>();
+        // Stops are ranked by how many schedules use them
+        StopIndex.Builder originIndex = new StopIndex.Builder();
+        Map<String, StopIndex.Builder> destinationIndexes = new HashMap<>();
+
+        for (Schedule schedule : schedules) {
+            String origin = schedule.getOrigin();
+            String destination = schedule.getDestination();
+            if (origin == null || destination == null) {
+                continue;
+            }
+            stops.add(origin);
+            stops.add(destination);
+
+            Set<String> destinations = adjacency.get(origin);
+            if (destinations == null) {
+                destinations = new TreeSet<>();
+                adjacency.put(origin, destinations);
+            }
+            destinations.add(destination);
+
+            originIndex.add(origin);
+            StopIndex.Builder destinationIndex = destinationIndexes.get(origin);
+            if (destinationIndex == null) {
+                destinationIndex = new StopIndex.Builder();
+                destinationIndexes.put(origin, destinationIndex);
+            }
+            destinationIndex.add(destination);
+
+            String date = schedule.getDate();
+            if (date != null && date.length() >= DATE_LENGTH) {
+                String routeKey = routeKey(origin, destination);
+                Set<String> dates = datesByRoute.get(routeKey);
+                if (dates == null) {
+                    dates = new HashSet<>();
+                    datesByRoute.put(routeKey, dates);
+                }
+                dates.add(date.substring(0, DATE_LENGTH));
+            }
+        }
+
+        // Destination lists are built here once so looking them up later costs nothing
+        Map<String, List<String>> destinationsByOrigin = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : adjacency.entrySet()) {
+            destinationsByOrigin.put(entry.getKey(),
+                    Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+        }
+        Map<String, StopIndex> destinationIndexByOrigin = new HashMap<>();
+        for (Map.Entry<String, StopIndex.Builder> entry : destinationIndexes.entrySet()) {
+            destinationIndexByOrigin.put(entry.getKey(), entry.getValue().build());
+        }
+        List<String> origins = new ArrayList<>(adjacency.keySet());
+        Collections.sort(origins);
+
+        return new RouteIndex(
+                Collections.unmodifiableList(new ArrayList<>(stops)),
+                Collections.unmodifiableList(origins),
+                destinationsByOrigin,
+                datesByRoute,
+                originIndex.build(),
+                destinationIndexByOrigin);
+    }
+
+    /**
+     * Every stop in the schedules, sorted and without duplicates.
+     */
+    public List<String> getStops() {
+        return stops;
+    }
+
+    /**
+     * Stops with at least one departure, sorted.
+     */
+    public List<String> getOrigins() {
+        return origins;
+    }
+
+    /**
+     * Sorted destinations reachable from the origin, empty for an unknown origin.
+     */
+    public List<String> destinationsFrom(String origin) {
+        List<String> destinations = destinationsByOrigin.get(origin);
+        return destinations != null ? destinations : Collections.emptyList();
+    }
+
+    /**
+     * Autocomplete index over the origins.
+     */
+    public StopIndex getOriginIndex() {
+        return originIndex;
+    }
+
+    /**
+     * Autocomplete index over the destinations reachable from the origin, empty for an unknown
+     * origin.
+     */
+    public StopIndex destinationIndexFrom(String origin) {
+        StopIndex destinationIndex = destinationIndexByOrigin.get(origin);
+        return destinationIndex != null ? destinationIndex : EMPTY_STOPS;
+    }
+
+    /**
+     * Whether a trip search can return anything. The date is yyyy-MM-dd. Routes whose
+     * schedules carry no departure dates accept any date.
+     */
+    public SearchCheck check(String origin, String destination, String date) {
+        if (!destinationsByOrigin.containsKey(origin)
+                || Collections.binarySearch(stops, destination) < 0) {
+            return SearchCheck.UNKNOWN_STOP;
+        }
+        if (Collections.binarySearch(destinationsFrom(origin), destination) < 0) {
+            return SearchCheck.NO_ROUTE;
+        }
+        Set<String> dates = datesByRoute.get(routeKey(origin, destination));
+        if (dates != null && !dates.contains(date)) {
+            return SearchCheck.NO_DEPARTURE_ON_DATE;
+        }
+        return SearchCheck.OK;
+    }
+
+    private static String routeKey(String origin, String destination) {
+        return origin + "\u0000" + destination;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.voyage.data.search;
+
+import com.example.voyage.data.models.Stage;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix index over stop names for autocomplete. Names are matched ignoring case and accents,
+ * from the start of the name or of any word in it, and ranked by how often the stop is used.
+ * <p>
+ * The index is immutable once built so it can be queried from any thread. A lookup is a binary
+ * search into a sorted key array followed by a scan of the matching range.
+ */
+public class StopIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    // Names and their usage counts, one slot per stop
+    private final String[] names;
+    private final int[] counts;
+
+    // Sorted normalized keys and the stop slot each one points at
+    private final String[] keys;
+    private final int[] stops;
+
+    // Normalized full name to stop slot, for resolving typed text
+    private final Map<String, Integer> exact;
+
+    private StopIndex(String[] names, int[] counts, String[] keys, int[] stops,
+                      Map<String, Integer> exact) {
+        this.names = names;
+        this.counts = counts;
+        this.keys = keys;
+        this.stops = stops;
+        this.exact = exact;
+    }
+
+    /**
+     * Up to limit stop names matching the query, most used first.
+     * An empty query returns the most used stops.
+     */
+    public List<String> complete(String query, int limit) {
+        if (limit <= 0 || names.length == 0) {
+            return Collections.emptyList();
+        }
+        String prefix = normalize(query);
+
+        // Best matches so far, kept sorted by rank
+        int[] best = new int[Math.min(limit, names.length)];
+        int found = 0;
+
+        for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            int stop = stops[i];
+            if (contains(best, found, stop)) {
+                // Matched through more than one word of the same name
+                continue;
+            }
+            if (found == best.length && !ranksBefore(stop, best[found - 1])) {
+                continue;
+            }
+            int position = found < best.length ? found++ : found - 1;
+            while (position > 0 && ranksBefore(stop, best[position - 1])) {
+                best[position] = best[position - 1];
+                position--;
+            }
+            best[position] = stop;
+        }
+
+        List<String> results = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            results.add(names[best[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * The stop name the text refers to, ignoring case, accents and extra spaces, or null.
+     */
+    public String resolve(String text) {
+        Integer stop = exact.get(normalize(text));
+        return stop != null ? names[stop] : null;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private boolean ranksBefore(int stop, int other) {
+        if (counts[stop] != counts[other]) {
+            return counts[stop] > counts[other];
+        }
+        return names[stop].compareTo(names[other]) < 0;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower case, with accents stripped from decomposed letters and runs of spaces collapsed.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    public static class Builder {
+
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        /**
+         * Counts one use of the stop, e.g. a schedule leaving from it.
+         */
+        public Builder add(String name) {
+            if (name == null || name.trim().isEmpty()) {
+                return this;
+            }
+            Integer count = counts.get(name);
+            counts.put(name, count == null ? 1 : count + 1);
+            return this;
+        }
+
+        public Builder add(Stage stage) {
+            if (stage != null) {
+                add(stage.getName());
+            }
+            return this;
+        }
+
+        public StopIndex build() {
+            String[] names = counts.keySet().toArray(new String[0]);
+            Arrays.sort(names);
+            int[] stopCounts = new int[names.length];
+
+            List<Key> keyList = new ArrayList<>();
+            Map<String, Integer> exact = new HashMap<>();
+            for (int stop = 0; stop < names.length; stop++) {
+                stopCounts[stop] = counts.get(names[stop]);
+
+                String key = normalize(names[stop]);
+                if (!exact.containsKey(key)) {
+                    exact.put(key, stop);
+                }
+                // One key per word so "cbd" finds "Nairobi CBD"
+                for (int start = 0; start < key.length(); start++) {
+                    if (start == 0 || key.charAt(start - 1) == ' ') {
+                        keyList.add(new Key(key.substring(start), stop));
+                    }
+                }
+            }
+            Collections.sort(keyList);
+
+            String[] keys = new String[keyList.size()];
+            int[] stops = new int[keyList.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = keyList.get(i).key;
+                stops[i] = keyList.get(i).stop;
+            }
+            return new StopIndex(names, stopCounts, keys, stops, exact);
+        }
+    }
+
+    private static class Key implements Comparable<Key> {
+
+        final String key;
+        final int stop;
+
+        Key(String key, int stop) {
+            this.key = key;
+            this.stop = stop;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return key.compareTo(other.key);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.voyage.data.seats;
+
+/**
+ * How seats are arranged in a bus row: the number of seats per row and the column after
+ * which the aisle runs.
+ */
+public class SeatLayout {
+
+    public static final SeatLayout TWO_BY_TWO = new SeatLayout(4, 2);
+    public static final SeatLayout TWO_BY_ONE = new SeatLayout(3, 2);
+    public static final SeatLayout THREE_BY_TWO = new SeatLayout(5, 3);
+
+    private final int rowWidth;
+    private final int aisleAfter;
+
+    public SeatLayout(int rowWidth, int aisleAfter) {
+        if (rowWidth <= 0) {
+            throw new IllegalArgumentException("Row width must be positive: " + rowWidth);
+        }
+        if (aisleAfter < 0 || aisleAfter > rowWidth) {
+            throw new IllegalArgumentException("Aisle position out of range: " + aisleAfter);
+        }
+        this.rowWidth = rowWidth;
+        this.aisleAfter = aisleAfter;
+    }
+
+    public int getRowWidth() {
+        return rowWidth;
+    }
+
+    /**
+     * Number of seats left of the aisle.
+     */
+    public int getAisleAfter() {
+        return aisleAfter;
+    }
+}
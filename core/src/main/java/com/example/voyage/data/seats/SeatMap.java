@@ -0,0 +1,223 @@
+package com.example.voyage.data.seats;
+
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.SeatDelta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Seat plan of one bus. Availability and the rider's selection are kept as bitsets indexed
+ * by the seat's position in the server response, so lookups and toggles do not allocate.
+ */
+public class SeatMap {
+
+    private final SeatLayout layout;
+
+    private final int[] seatIds;
+    private final long[] available;
+    private final long[] selected;
+
+    // Seat id lookup. Ids are normally contiguous, otherwise fall back to a binary search
+    private final int firstId;
+    private final boolean contiguousIds;
+    private final int[] sortedIds;
+    private final int[] sortedIndexes;
+
+    private int selectedCount;
+
+    private SeatMap(SeatLayout layout, int[] seatIds, long[] available, long[] selected) {
+        this.layout = layout;
+        this.seatIds = seatIds;
+        this.available = available;
+        this.selected = selected;
+
+        int count = seatIds.length;
+        boolean contiguous = true;
+        for (int i = 1; i < count; i++) {
+            if (seatIds[i] != seatIds[0] + i) {
+                contiguous = false;
+                break;
+            }
+        }
+        this.firstId = count > 0 ? seatIds[0] : 0;
+        this.contiguousIds = contiguous;
+
+        if (contiguous) {
+            sortedIds = null;
+            sortedIndexes = null;
+        } else {
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                packed[i] = ((long) seatIds[i] << 32) | i;
+            }
+            Arrays.sort(packed);
+            sortedIds = new int[count];
+            sortedIndexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                sortedIds[i] = (int) (packed[i] >> 32);
+                sortedIndexes[i] = (int) packed[i];
+            }
+        }
+
+        for (long word : selected) {
+            selectedCount += Long.bitCount(word);
+        }
+    }
+
+    public static SeatMap fromSeats(List<Seat> seats, SeatLayout layout) {
+        int count = seats.size();
+        int[] seatIds = new int[count];
+        long[] available = new long[words(count)];
+
+        for (int i = 0; i < count; i++) {
+            Seat seat = seats.get(i);
+            seatIds[i] = seat.getId();
+            if (seat.getAvailable() == 1) {
+                available[i >>> 6] |= 1L << i;
+            }
+        }
+        return new SeatMap(layout, seatIds, available, new long[words(count)]);
+    }
+
+    /**
+     * Returns a copy with the delta applied. The rider's selection is kept, except for seats
+     * that are no longer available. Seats this bus does not have are ignored.
+     */
+    public SeatMap withDelta(SeatDelta delta) {
+        long[] newAvailable = available.clone();
+        long[] newSelected = selected.clone();
+        for (int i = 0; i < delta.size(); i++) {
+            int index = indexOf(delta.getSeatId(i));
+            if (index < 0) {
+                continue;
+            }
+            long bit = 1L << index;
+            if (delta.isAvailable(i)) {
+                newAvailable[index >>> 6] |= bit;
+            } else {
+                newAvailable[index >>> 6] &= ~bit;
+                newSelected[index >>> 6] &= ~bit;
+            }
+        }
+        return new SeatMap(layout, seatIds, newAvailable, newSelected);
+    }
+
+    /**
+     * Returns this map with the rider's selection carried over from an earlier map of the same
+     * bus, dropping seats that are no longer available.
+     */
+    public SeatMap withSelectionOf(SeatMap previous) {
+        if (!hasSameSeats(previous) || previous.selectedCount == 0) {
+            return this;
+        }
+        long[] newSelected = new long[selected.length];
+        for (int word = 0; word < newSelected.length; word++) {
+            newSelected[word] = previous.selected[word] & available[word];
+        }
+        return new SeatMap(layout, seatIds, available, newSelected);
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    public int getSeatCount() {
+        return seatIds.length;
+    }
+
+    public int getRowCount() {
+        int rowWidth = layout.getRowWidth();
+        return (seatIds.length + rowWidth - 1) / rowWidth;
+    }
+
+    /**
+     * Index of the seat at the given row and column, or -1 when the last row is not full.
+     */
+    public int seatIndex(int row, int column) {
+        int index = row * layout.getRowWidth() + column;
+        return index < seatIds.length ? index : -1;
+    }
+
+    public int getSeatId(int index) {
+        return seatIds[index];
+    }
+
+    /**
+     * Index of the seat with the given id, or -1 if the bus has no such seat.
+     */
+    public int indexOf(int seatId) {
+        if (contiguousIds) {
+            int index = seatId - firstId;
+            return index >= 0 && index < seatIds.length ? index : -1;
+        }
+        int position = Arrays.binarySearch(sortedIds, seatId);
+        return position >= 0 ? sortedIndexes[position] : -1;
+    }
+
+    public boolean isAvailable(int index) {
+        return (available[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public boolean isSelected(int index) {
+        return (selected[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Selects or deselects an available seat. Returns whether the seat is selected afterwards.
+     */
+    public boolean toggleSelection(int index) {
+        if (!isAvailable(index)) {
+            return false;
+        }
+        selected[index >>> 6] ^= 1L << index;
+        boolean isSelected = isSelected(index);
+        selectedCount += isSelected ? 1 : -1;
+        return isSelected;
+    }
+
+    /**
+     * Whether both maps hold the same seats in the same layout, so their rows line up.
+     */
+    public boolean hasSameSeats(SeatMap other) {
+        return other != null && layout == other.layout && Arrays.equals(seatIds, other.seatIds);
+    }
+
+    /**
+     * Whether any seat in the row is available or selected in one map but not the other.
+     * Only meaningful when {@link #hasSameSeats(SeatMap)} holds.
+     */
+    public boolean rowDiffers(SeatMap other, int row) {
+        int start = row * layout.getRowWidth();
+        int end = Math.min(start + layout.getRowWidth(), seatIds.length);
+        for (int index = start; index < end; index++) {
+            if (isAvailable(index) != other.isAvailable(index)
+                    || isSelected(index) != other.isSelected(index)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    public ArrayList<Integer> getSelectedSeatIds() {
+        ArrayList<Integer> ids = new ArrayList<>(selectedCount);
+        for (int word = 0; word < selected.length; word++) {
+            long bits = selected[word];
+            while (bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                ids.add(seatIds[index]);
+                bits &= bits - 1;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.voyage.data.trips;
+
+import androidx.annotation.WorkerThread;
+
+import com.example.voyage.data.models.Stage;
+import com.example.voyage.data.models.Trip;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns trips from the api into {@link TripDisplayModel}s. Date formats are not thread safe,
+ * so each call to {@link #map(List)} uses its own and it can run on any background thread.
+ */
+public class TripDisplayMapper {
+    private static final String API_TIME_FORMAT = "yyyy-MM-dd kk:mm:ss";
+    private static final String SCREEN_TIME_FORMAT = "h:mm a";
+
+    @WorkerThread
+    public List<TripDisplayModel> map(List<Trip> trips) {
+        SimpleDateFormat apiTimeFormat = new SimpleDateFormat(API_TIME_FORMAT, Locale.ENGLISH);
+        SimpleDateFormat screenTimeFormat =
+                new SimpleDateFormat(SCREEN_TIME_FORMAT, Locale.ENGLISH);
+
+        List<TripDisplayModel> models = new ArrayList<>(trips.size());
+        for (Trip trip : trips) {
+            models.add(map(trip, apiTimeFormat, screenTimeFormat));
+        }
+        return models;
+    }
+
+    private TripDisplayModel map(Trip trip, SimpleDateFormat apiTimeFormat,
+                                 SimpleDateFormat screenTimeFormat) {
+        long departureMillis = 0;
+        long arrivalMillis = 0;
+        String timeRange = "";
+        String durationLabel = "";
+        if (trip.getDepartureTime() != null && trip.getArrivalTime() != null) {
+            try {
+                Date departure = apiTimeFormat.parse(trip.getDepartureTime());
+                Date arrival = apiTimeFormat.parse(trip.getArrivalTime());
+                departureMillis = departure.getTime();
+                arrivalMillis = arrival.getTime();
+
+                timeRange = screenTimeFormat.format(departure)
+                        .concat(" - ")
+                        .concat(screenTimeFormat.format(arrival));
+                durationLabel = durationLabel((arrivalMillis - departureMillis) / 60_000L);
+            } catch (ParseException e) {
+                e.printStackTrace();
+            }
+        }
+
+        int firstClassPrice = 0;
+        int secondClassPrice = 0;
+        if (trip.getSeatPrice() != null) {
+            firstClassPrice = trip.getFirstClassPrice();
+            secondClassPrice = trip.getSecondClassPrice();
+        }
+        String priceLabel = String.valueOf(firstClassPrice).concat(" KES");
+        String secondClassPriceLabel = String.valueOf(secondClassPrice).concat(" KES");
+
+        return new TripDisplayModel(trip.getId(), trip.getBusId(),
+                stageId(trip.getOriginStage()), stageId(trip.getDestinationStage()),
+                timeRange, priceLabel, secondClassPriceLabel, durationLabel, departureMillis,
+                arrivalMillis, firstClassPrice, secondClassPrice);
+    }
+
+    private static int stageId(Stage stage) {
+        return stage != null ? stage.getId() : 0;
+    }
+
+    static String durationLabel(long minutes) {
+        if (minutes <= 0) {
+            return "";
+        }
+        long hours = minutes / 60;
+        long rest = minutes % 60;
+        if (hours == 0) {
+            return rest + "m";
+        }
+        return rest == 0 ? hours + "h" : hours + "h " + rest + "m";
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.voyage.data.trips;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A trip as the results list shows it. Labels are formatted once by {@link TripDisplayMapper}
+ * so binding a row only sets text, the raw values are kept for sorting and filtering.
+ */
+public final class TripDisplayModel {
+
+    private final int id;
+    private final int busId;
+    private final int pickPointId;
+    private final int dropPointId;
+
+    private final String timeRange;
+    private final String priceLabel;
+    private final String secondClassPriceLabel;
+    private final String durationLabel;
+
+    private final long departureMillis;
+    private final long arrivalMillis;
+    private final int firstClassPrice;
+    private final int secondClassPrice;
+
+    TripDisplayModel(int id, int busId, int pickPointId, int dropPointId,
+                     @NonNull String timeRange, @NonNull String priceLabel,
+                     @NonNull String secondClassPriceLabel, @NonNull String durationLabel,
+                     long departureMillis, long arrivalMillis, int firstClassPrice,
+                     int secondClassPrice) {
+        this.id = id;
+        this.busId = busId;
+        this.pickPointId = pickPointId;
+        this.dropPointId = dropPointId;
+        this.timeRange = timeRange;
+        this.priceLabel = priceLabel;
+        this.secondClassPriceLabel = secondClassPriceLabel;
+        this.durationLabel = durationLabel;
+        this.departureMillis = departureMillis;
+        this.arrivalMillis = arrivalMillis;
+        this.firstClassPrice = firstClassPrice;
+        this.secondClassPrice = secondClassPrice;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getBusId() {
+        return busId;
+    }
+
+    public int getPickPointId() {
+        return pickPointId;
+    }
+
+    public int getDropPointId() {
+        return dropPointId;
+    }
+
+    public String getTimeRange() {
+        return timeRange;
+    }
+
+    public String getPriceLabel() {
+        return priceLabel;
+    }
+
+    public String getSecondClassPriceLabel() {
+        return secondClassPriceLabel;
+    }
+
+    public String getDurationLabel() {
+        return durationLabel;
+    }
+
+    public long getDepartureMillis() {
+        return departureMillis;
+    }
+
+    public long getArrivalMillis() {
+        return arrivalMillis;
+    }
+
+    public int getFirstClassPrice() {
+        return firstClassPrice;
+    }
+
+    public int getSecondClassPrice() {
+        return secondClassPrice;
+    }
+
+    public int getDurationMinutes() {
+        return (int) ((arrivalMillis - departureMillis) / 60_000L);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TripDisplayModel that = (TripDisplayModel) o;
+        return id == that.id
+                && busId == that.busId
+                && pickPointId == that.pickPointId
+                && dropPointId == that.dropPointId
+                && departureMillis == that.departureMillis
+                && arrivalMillis == that.arrivalMillis
+                && firstClassPrice == that.firstClassPrice
+                && secondClassPrice == that.secondClassPrice
+                && timeRange.equals(that.timeRange)
+                && priceLabel.equals(that.priceLabel)
+                && secondClassPriceLabel.equals(that.secondClassPriceLabel)
+                && durationLabel.equals(that.durationLabel);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id;
+        result = 31 * result + busId;
+        result = 31 * result + (int) (departureMillis ^ (departureMillis >>> 32));
+        result = 31 * result + firstClassPrice;
+        return result;
+    }
+}
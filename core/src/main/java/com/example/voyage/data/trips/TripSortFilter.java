@@ -0,0 +1,256 @@
+package com.example.voyage.data.trips;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Sorts and filters the trips of one search without going back to the server. The sort and
+ * filter keys are copied into primitive arrays once, when the engine is built off the main
+ * thread, so applying a {@link Query} is a scan of those arrays and one primitive sort.
+ * <p>
+ * {@link #apply(Query)} reuses a scratch array and must always be called from the same thread.
+ */
+public final class TripSortFilter {
+
+    public enum Sort {
+        DEPARTURE,
+        ARRIVAL,
+        PRICE,
+        DURATION
+    }
+
+    public enum SeatClass {
+        FIRST,
+        SECOND
+    }
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Time of day a trip leaves, in minutes. A window whose end is before its start wraps
+     * past midnight.
+     */
+    public enum DepartureWindow {
+        ANY(0, MINUTES_PER_DAY),
+        MORNING(5 * 60, 12 * 60),
+        AFTERNOON(12 * 60, 17 * 60),
+        EVENING(17 * 60, 22 * 60),
+        NIGHT(22 * 60, 5 * 60);
+
+        private final int fromMinute;
+        private final int toMinute;
+
+        DepartureWindow(int fromMinute, int toMinute) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+        }
+
+        boolean contains(int minute) {
+            if (this == ANY) {
+                return true;
+            }
+            if (minute < 0) {
+                return false;
+            }
+            if (fromMinute <= toMinute) {
+                return minute >= fromMinute && minute < toMinute;
+            }
+            return minute >= fromMinute || minute < toMinute;
+        }
+    }
+
+    // A sort key is packed above the trip position, so sorting the longs orders the trips by
+    // key and keeps server order between equal keys
+    private static final int POSITION_BITS = 20;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+    private static final long MAX_KEY = (1L << (63 - POSITION_BITS)) - 1;
+    public static final int MAX_TRIPS = 1 << POSITION_BITS;
+
+    private final List<TripDisplayModel> trips;
+
+    private final long[] departures;
+    private final long[] arrivals;
+    private final int[] departureMinutes;
+    private final int[] durations;
+    private final int[] firstClassPrices;
+    private final int[] secondClassPrices;
+
+    private final long[] scratch;
+
+    private TripSortFilter(List<TripDisplayModel> trips) {
+        this.trips = trips;
+        int size = trips.size();
+        departures = new long[size];
+        arrivals = new long[size];
+        departureMinutes = new int[size];
+        durations = new int[size];
+        firstClassPrices = new int[size];
+        secondClassPrices = new int[size];
+        scratch = new long[size];
+
+        Calendar calendar = Calendar.getInstance();
+        for (int i = 0; i < size; i++) {
+            TripDisplayModel trip = trips.get(i);
+            boolean timed = trip.getDepartureMillis() > 0 && trip.getArrivalMillis() > 0;
+            departures[i] = timed ? trip.getDepartureMillis() : MAX_KEY;
+            arrivals[i] = timed ? trip.getArrivalMillis() : MAX_KEY;
+            durations[i] = timed ? Math.max(trip.getDurationMinutes(), 0) : Integer.MAX_VALUE;
+            if (timed) {
+                calendar.setTimeInMillis(trip.getDepartureMillis());
+                departureMinutes[i] = calendar.get(Calendar.HOUR_OF_DAY) * 60
+                        + calendar.get(Calendar.MINUTE);
+            } else {
+                departureMinutes[i] = -1;
+            }
+            firstClassPrices[i] = trip.getFirstClassPrice();
+            secondClassPrices[i] = trip.getSecondClassPrice();
+        }
+    }
+
+    /**
+     * Builds the engine for the trips, in the order the server sent them. Call it off the
+     * main thread.
+     */
+    public static TripSortFilter of(List<TripDisplayModel> trips) {
+        if (trips.size() > MAX_TRIPS) {
+            throw new IllegalArgumentException("Too many trips: " + trips.size());
+        }
+        return new TripSortFilter(new ArrayList<>(trips));
+    }
+
+    public int size() {
+        return trips.size();
+    }
+
+    /**
+     * The trips that match the query, in its order. A trip with no price in the seat class is
+     * still shown, but left out by a price limit and sorted last by price.
+     */
+    public List<TripDisplayModel> apply(Query query) {
+        int[] prices = pricesOf(query.getSeatClass());
+        int count = 0;
+        for (int i = 0; i < prices.length; i++) {
+            if ((query.getMaxPrice() > 0 && (prices[i] <= 0 || prices[i] > query.getMaxPrice()))
+                    || !query.getDepartureWindow().contains(departureMinutes[i])) {
+                continue;
+            }
+            scratch[count++] = (keyOf(query.getSort(), prices, i) << POSITION_BITS) | i;
+        }
+        Arrays.sort(scratch, 0, count);
+
+        List<TripDisplayModel> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(trips.get((int) (scratch[i] & POSITION_MASK)));
+        }
+        return result;
+    }
+
+    /**
+     * The highest price in the seat class, 0 when no trip has one.
+     */
+    public int getMaxPrice(SeatClass seatClass) {
+        int max = 0;
+        for (int price : pricesOf(seatClass)) {
+            max = Math.max(max, price);
+        }
+        return max;
+    }
+
+    /**
+     * The lowest price in the seat class, 0 when no trip has one.
+     */
+    public int getMinPrice(SeatClass seatClass) {
+        int min = 0;
+        for (int price : pricesOf(seatClass)) {
+            if (price > 0 && (min == 0 || price < min)) {
+                min = price;
+            }
+        }
+        return min;
+    }
+
+    private int[] pricesOf(SeatClass seatClass) {
+        return seatClass == SeatClass.SECOND ? secondClassPrices : firstClassPrices;
+    }
+
+    private long keyOf(Sort sort, int[] prices, int i) {
+        switch (sort) {
+            case ARRIVAL:
+                return clamp(arrivals[i]);
+            case PRICE:
+                return prices[i] > 0 ? prices[i] : MAX_KEY;
+            case DURATION:
+                return durations[i];
+            case DEPARTURE:
+            default:
+                return clamp(departures[i]);
+        }
+    }
+
+    private static long clamp(long key) {
+        return Math.min(Math.max(key, 0), MAX_KEY);
+    }
+
+    /**
+     * How to order and narrow down the trips. Immutable, each change returns a new query.
+     */
+    public static final class Query {
+
+        public static final Query DEFAULT = new Query(Sort.DEPARTURE, SeatClass.FIRST,
+                DepartureWindow.ANY, 0);
+
+        private final Sort sort;
+        private final SeatClass seatClass;
+        private final DepartureWindow departureWindow;
+        private final int maxPrice;
+
+        private Query(Sort sort, SeatClass seatClass, DepartureWindow departureWindow,
+                      int maxPrice) {
+            this.sort = sort;
+            this.seatClass = seatClass;
+            this.departureWindow = departureWindow;
+            this.maxPrice = maxPrice;
+        }
+
+        public Sort getSort() {
+            return sort;
+        }
+
+        public SeatClass getSeatClass() {
+            return seatClass;
+        }
+
+        public DepartureWindow getDepartureWindow() {
+            return departureWindow;
+        }
+
+        /**
+         * The highest price shown, 0 for no limit.
+         */
+        public int getMaxPrice() {
+            return maxPrice;
+        }
+
+        public Query withSort(Sort sort) {
+            return new Query(sort, seatClass, departureWindow, maxPrice);
+        }
+
+        /**
+         * Prices differ between classes, so the price limit is dropped when the class changes.
+         */
+        public Query withSeatClass(SeatClass seatClass) {
+            return new Query(sort, seatClass, departureWindow,
+                    seatClass == this.seatClass ? maxPrice : 0);
+        }
+
+        public Query withDepartureWindow(DepartureWindow departureWindow) {
+            return new Query(sort, seatClass, departureWindow, maxPrice);
+        }
+
+        public Query withMaxPrice(int maxPrice) {
+            return new Query(sort, seatClass, departureWindow, Math.max(maxPrice, 0));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.voyage.data.json;
+
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.Trip;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the streaming adapters from {@link VoyageGson} decode the same data as Gson's
+ * reflective path. Their speed is measured by the JMH benchmarks in {@code :benchmark-jvm}.
+ */
+public class TypeAdapterTest {
+
+    private static final Type TRIP_LIST_TYPE = new TypeToken<List<Trip>>() {
+    }.getType();
+    private static final Type SEAT_LIST_TYPE = new TypeToken<List<Seat>>() {
+    }.getType();
+
+    private static final int TRIP_COUNT = 50;
+    private static final int SEAT_COUNT = 200;
+
+    @Test
+    public void tripList() {
+        String json = tripsJson(TRIP_COUNT);
+
+        List<Trip> reflective = new Gson().fromJson(json, TRIP_LIST_TYPE);
+        List<Trip> streaming = VoyageGson.create().fromJson(json, TRIP_LIST_TYPE);
+
+        assertEquals(reflective.size(), streaming.size());
+        for (int i = 0; i < reflective.size(); i++) {
+            Trip expected = reflective.get(i);
+            Trip actual = streaming.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getBusId(), actual.getBusId());
+            assertEquals(expected.getDepartureTime(), actual.getDepartureTime());
+            assertEquals(expected.getArrivalTime(), actual.getArrivalTime());
+            assertEquals(expected.getFirstClassPrice(), actual.getFirstClassPrice());
+            assertEquals(expected.getSecondClassPrice(), actual.getSecondClassPrice());
+            assertEquals(expected.getOriginStage().getName(), actual.getOriginStage().getName());
+            assertEquals(expected.getDestinationStage().getId(),
+                    actual.getDestinationStage().getId());
+        }
+    }
+
+    @Test
+    public void seatList() {
+        String json = seatsJson(SEAT_COUNT);
+
+        List<Seat> reflective = new Gson().fromJson(json, SEAT_LIST_TYPE);
+        List<Seat> streaming = VoyageGson.create().fromJson(json, SEAT_LIST_TYPE);
+
+        assertEquals(reflective.size(), streaming.size());
+        for (int i = 0; i < reflective.size(); i++) {
+            assertEquals(reflective.get(i).getId(), streaming.get(i).getId());
+            assertEquals(reflective.get(i).getAvailable(), streaming.get(i).getAvailable());
+        }
+    }
+
+    private static String tripsJson(int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            int hour = 6 + i % 12;
+            builder.append("{\"id\":").append(i)
+                    .append(",\"origin\":\"Nairobi\",\"destination\":\"Mombasa\"")
+                    .append(",\"busId\":").append(i % 40)
+                    .append(",\"dept_time\":\"2019-07-01 ").append(hour).append(":00:00\"")
+                    .append(",\"arrival_time\":\"2019-07-01 ").append(hour + 6).append(":30:00\"")
+                    .append(",\"prices\":{\"First class\":").append(1500 + i % 7 * 100)
+                    .append(",\"Second class\":").append(1000 + i % 5 * 100).append('}')
+                    .append(",\"origins\":{\"id\":").append(i % 30)
+                    .append(",\"name\":\"Stage ").append(i % 30).append("\"}")
+                    .append(",\"destinations\":{\"id\":").append(30 + i % 30)
+                    .append(",\"name\":\"Stage ").append(30 + i % 30).append("\"}")
+                    .append(",\"created_at\":\"2019-06-01 10:00:00\"}");
+        }
+        return builder.append(']').toString();
+    }
+
+    private static String seatsJson(int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i + 1)
+                    .append(",\"available\":").append(i % 3 == 0 ? 0 : 1).append('}');
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.voyage.data.search;
+
+import com.example.voyage.data.models.Schedule;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RouteIndexTest {
+
+    private final RouteIndex index = RouteIndex.build(Arrays.asList(
+            new Schedule("Nairobi", "Mombasa", "2019-07-01 08:00:00"),
+            new Schedule("Nairobi", "Mombasa", "2019-07-02 08:00:00"),
+            new Schedule("Nairobi", "Kisumu", "2019-07-01 21:00:00"),
+            new Schedule("Nakuru", "Nairobi", "2019-07-01 06:30:00"),
+            new Schedule("Mombasa", "Malindi", null),
+            new Schedule(null, "Eldoret", "2019-07-01 06:30:00")));
+
+    @Test
+    public void stopsAndOriginsAreSortedWithoutDuplicates() {
+        assertEquals(Arrays.asList("Kisumu", "Malindi", "Mombasa", "Nairobi", "Nakuru"),
+                index.getStops());
+        assertEquals(Arrays.asList("Mombasa", "Nairobi", "Nakuru"), index.getOrigins());
+    }
+
+    @Test
+    public void destinationsFromAnOrigin() {
+        assertEquals(Arrays.asList("Kisumu", "Mombasa"), index.destinationsFrom("Nairobi"));
+        assertEquals(Collections.emptyList(), index.destinationsFrom("Kisumu"));
+        assertEquals(Collections.emptyList(), index.destinationsFrom("Eldoret"));
+    }
+
+    @Test
+    public void searchCheck() {
+        assertEquals(RouteIndex.SearchCheck.OK,
+                index.check("Nairobi", "Mombasa", "2019-07-02"));
+        assertEquals(RouteIndex.SearchCheck.NO_DEPARTURE_ON_DATE,
+                index.check("Nairobi", "Kisumu", "2019-07-02"));
+        assertEquals(RouteIndex.SearchCheck.NO_ROUTE,
+                index.check("Nakuru", "Mombasa", "2019-07-01"));
+        // Kisumu has no departures, so it is not a known origin
+        assertEquals(RouteIndex.SearchCheck.UNKNOWN_STOP,
+                index.check("Kisumu", "Nairobi", "2019-07-01"));
+        assertEquals(RouteIndex.SearchCheck.UNKNOWN_STOP,
+                index.check("Nairobi", "Garissa", "2019-07-01"));
+    }
+
+    @Test
+    public void routeWithoutDatesAcceptsAnyDate() {
+        assertEquals(RouteIndex.SearchCheck.OK,
+                index.check("Mombasa", "Malindi", "2030-01-01"));
+    }
+
+    @Test
+    public void autocompleteIndexesFollowTheRoutes() {
+        // Nairobi has the most departures
+        assertEquals(Arrays.asList("Nairobi", "Mombasa", "Nakuru"),
+                index.getOriginIndex().complete("", 5));
+        assertEquals(Arrays.asList("Mombasa"), index.destinationIndexFrom("Nairobi")
+                .complete("m", 5));
+        assertTrue(index.destinationIndexFrom("Kisumu").complete("", 5).isEmpty());
+    }
+}
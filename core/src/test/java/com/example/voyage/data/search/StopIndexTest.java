@@ -0,0 +1,72 @@
+package com.example.voyage.data.search;
+
+import com.example.voyage.data.models.Stage;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StopIndexTest {
+
+    private static StopIndex index() {
+        return new StopIndex.Builder()
+                .add("Nairobi CBD").add("Nairobi CBD").add("Nairobi CBD")
+                .add("Nakuru").add("Nakuru")
+                .add("Naivasha").add("Naivasha")
+                .add("Mombasa")
+                .add("Murang'a")
+                .add("Kisumu Bus Park")
+                .add("Nyahururu Caf\u00e9")
+                .add(new Stage(1, "Malindi"))
+                .add(" ")
+                .add((String) null)
+                .build();
+    }
+
+    @Test
+    public void prefixMatchesRankedByUseThenName() {
+        // Nakuru and Naivasha are used as often, so they come in name order
+        assertEquals(Arrays.asList("Nairobi CBD", "Naivasha", "Nakuru"),
+                index().complete("na", 3));
+    }
+
+    @Test
+    public void limitKeepsTheTopRanked() {
+        assertEquals(Arrays.asList("Nairobi CBD", "Naivasha"), index().complete("na", 2));
+        assertEquals(Collections.emptyList(), index().complete("na", 0));
+    }
+
+    @Test
+    public void emptyQueryReturnsMostUsed() {
+        assertEquals(Arrays.asList("Nairobi CBD", "Naivasha", "Nakuru", "Kisumu Bus Park"),
+                index().complete("", 4));
+    }
+
+    @Test
+    public void matchesAnyWordOnce() {
+        assertEquals(Collections.singletonList("Nairobi CBD"), index().complete("cbd", 5));
+        assertEquals(Collections.singletonList("Kisumu Bus Park"), index().complete("park", 5));
+        assertTrue(index().complete("obi", 5).isEmpty());
+    }
+
+    @Test
+    public void ignoresCaseAccentsAndSpaces() {
+        assertEquals(Collections.singletonList("Nyahururu Caf\u00e9"),
+                index().complete("  NYAHURURU   cafe", 5));
+        assertEquals("Nyahururu Caf\u00e9", index().resolve("nyahururu CAFE\u0301"));
+        assertEquals("Kisumu Bus Park", index().resolve(" kisumu  bus park "));
+        assertNull(index().resolve("Kisumu Bus"));
+        assertNull(index().resolve(null));
+    }
+
+    @Test
+    public void blankNamesAreSkipped() {
+        assertEquals(8, index().size());
+        assertEquals(0, new StopIndex.Builder().build().complete("", 5).size());
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.voyage.data.seats;
+
+import com.example.voyage.data.models.Seat;
+import com.example.voyage.data.models.SeatDelta;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SeatMapTest {
+
+    // More than one 64 bit word, every third seat taken
+    private static final int SEAT_COUNT = 130;
+
+    @Test
+    public void availabilitySpansEveryWord() {
+        SeatMap map = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+
+        assertEquals(SEAT_COUNT, map.getSeatCount());
+        for (int i = 0; i < SEAT_COUNT; i++) {
+            assertEquals("Seat " + i, i % 3 != 0, map.isAvailable(i));
+            assertFalse(map.isSelected(i));
+        }
+    }
+
+    @Test
+    public void onlyAvailableSeatsCanBeSelected() {
+        SeatMap map = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+
+        assertFalse(map.toggleSelection(0));
+        assertTrue(map.toggleSelection(1));
+        assertTrue(map.toggleSelection(100));
+        assertEquals(2, map.getSelectedCount());
+        assertEquals(Arrays.asList(2, 101), map.getSelectedSeatIds());
+
+        assertFalse(map.toggleSelection(1));
+        assertEquals(1, map.getSelectedCount());
+        assertEquals(Collections.singletonList(101), map.getSelectedSeatIds());
+    }
+
+    @Test
+    public void indexOfContiguousIds() {
+        SeatMap map = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+
+        assertEquals(0, map.indexOf(1));
+        assertEquals(SEAT_COUNT - 1, map.indexOf(SEAT_COUNT));
+        assertEquals(-1, map.indexOf(0));
+        assertEquals(-1, map.indexOf(SEAT_COUNT + 1));
+    }
+
+    @Test
+    public void indexOfIdsWithGapsAndOutOfOrder() {
+        List<Seat> seats = Arrays.asList(new Seat(40, 1), new Seat(12, 1), new Seat(7, 0),
+                new Seat(31, 1));
+        SeatMap map = SeatMap.fromSeats(seats, SeatLayout.TWO_BY_TWO);
+
+        for (int i = 0; i < seats.size(); i++) {
+            assertEquals(i, map.indexOf(seats.get(i).getId()));
+        }
+        assertEquals(-1, map.indexOf(8));
+        assertEquals(-1, map.indexOf(41));
+    }
+
+    @Test
+    public void rowsLeaveTheLastOnePartial() {
+        SeatMap map = SeatMap.fromSeats(seats(10), SeatLayout.TWO_BY_TWO);
+
+        assertEquals(3, map.getRowCount());
+        assertEquals(9, map.seatIndex(2, 1));
+        assertEquals(-1, map.seatIndex(2, 2));
+    }
+
+    @Test
+    public void deltaChangesAvailabilityAndDropsTakenSelection() {
+        SeatMap map = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+        map.toggleSelection(1);
+        map.toggleSelection(70);
+
+        // Seat 2 is taken, seat 1 freed, seat 500 is not on this bus
+        SeatDelta delta = new SeatDelta(12, 5, new int[]{2, 1, 500},
+                new boolean[]{false, true, false});
+        SeatMap updated = map.withDelta(delta);
+
+        assertNotSame(map, updated);
+        assertFalse(updated.isAvailable(1));
+        assertTrue(updated.isAvailable(0));
+        assertEquals(Collections.singletonList(71), updated.getSelectedSeatIds());
+        // The original is left as it was
+        assertTrue(map.isAvailable(1));
+        assertEquals(2, map.getSelectedCount());
+    }
+
+    @Test
+    public void deltaIsReadWithItsVersion() {
+        Map<String, String> data = new HashMap<>();
+        data.put("type", SeatDelta.MESSAGE_TYPE);
+        data.put("bus_id", "12");
+        data.put("version", "42");
+        data.put("seats", "101:0, 102:1");
+
+        assertTrue(SeatDelta.isSeatDelta(data));
+        SeatDelta delta = SeatDelta.fromData(data);
+        assertEquals(12, delta.getBusId());
+        assertEquals(42, delta.getVersion());
+        assertEquals(2, delta.size());
+        assertEquals(101, delta.getSeatId(0));
+        assertFalse(delta.isAvailable(0));
+        assertTrue(delta.isAvailable(1));
+
+        data.put("seats", "101");
+        assertNull(SeatDelta.fromData(data));
+        data.put("seats", "101:0");
+        data.put("version", "new");
+        assertNull(SeatDelta.fromData(data));
+    }
+
+    @Test
+    public void selectionCarriesOverToRefreshedMap() {
+        SeatMap previous = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+        previous.toggleSelection(1);
+        previous.toggleSelection(2);
+
+        List<Seat> refreshedSeats = seats(SEAT_COUNT);
+        refreshedSeats.set(2, new Seat(3, 0));
+        SeatMap refreshed = SeatMap.fromSeats(refreshedSeats, SeatLayout.TWO_BY_TWO)
+                .withSelectionOf(previous);
+
+        assertEquals(Collections.singletonList(2), refreshed.getSelectedSeatIds());
+    }
+
+    @Test
+    public void selectionIsNotCarriedToAnotherBus() {
+        SeatMap previous = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+        previous.toggleSelection(1);
+
+        SeatMap otherLayout = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_ONE);
+        SeatMap otherSeats = SeatMap.fromSeats(seats(SEAT_COUNT - 1), SeatLayout.TWO_BY_TWO);
+
+        assertSame(otherLayout, otherLayout.withSelectionOf(previous));
+        assertSame(otherSeats, otherSeats.withSelectionOf(previous));
+        assertFalse(otherLayout.hasSameSeats(null));
+    }
+
+    @Test
+    public void onlyChangedRowsDiffer() {
+        SeatMap previous = SeatMap.fromSeats(seats(SEAT_COUNT), SeatLayout.TWO_BY_TWO);
+        SeatMap refreshed = previous.withDelta(new SeatDelta(12, 1, new int[]{6},
+                new boolean[]{false}));
+        refreshed.toggleSelection(65);
+
+        assertTrue(refreshed.hasSameSeats(previous));
+        for (int row = 0; row < refreshed.getRowCount(); row++) {
+            // Seat id 6 is in row 1, seat index 65 in row 16
+            assertEquals("Row " + row, row == 1 || row == 16,
+                    refreshed.rowDiffers(previous, row));
+        }
+    }
+
+    private static List<Seat> seats(int count) {
+        List<Seat> seats = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            seats.add(new Seat(i + 1, i % 3 == 0 ? 0 : 1));
+        }
+        return seats;
+    }
+}
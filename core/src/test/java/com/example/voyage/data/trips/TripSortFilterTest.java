@@ -0,0 +1,116 @@
+package com.example.voyage.data.trips;
+
+import com.example.voyage.data.trips.TripSortFilter.DepartureWindow;
+import com.example.voyage.data.trips.TripSortFilter.Query;
+import com.example.voyage.data.trips.TripSortFilter.SeatClass;
+import com.example.voyage.data.trips.TripSortFilter.Sort;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TripSortFilterTest {
+
+    @Test
+    public void nightWindowWrapsPastMidnight() {
+        TripSortFilter filter = TripSortFilter.of(Arrays.asList(
+                trip(1, 21, 59, 120, 100, 50),
+                trip(2, 22, 0, 120, 100, 50),
+                trip(3, 23, 30, 120, 100, 50),
+                // The next morning
+                trip(4, 24, 15, 120, 100, 50),
+                trip(5, 28, 59, 120, 100, 50),
+                trip(6, 29, 0, 120, 100, 50)));
+
+        assertEquals(Arrays.asList(2, 3, 4, 5),
+                ids(filter.apply(Query.DEFAULT.withDepartureWindow(DepartureWindow.NIGHT))));
+        assertEquals(Arrays.asList(6),
+                ids(filter.apply(Query.DEFAULT.withDepartureWindow(DepartureWindow.MORNING))));
+        assertEquals(Arrays.asList(1),
+                ids(filter.apply(Query.DEFAULT.withDepartureWindow(DepartureWindow.EVENING))));
+    }
+
+    @Test
+    public void equalKeysKeepServerOrder() {
+        TripSortFilter filter = TripSortFilter.of(Arrays.asList(
+                trip(1, 9, 0, 120, 300, 0),
+                trip(2, 8, 0, 90, 200, 0),
+                trip(3, 9, 0, 60, 200, 0),
+                trip(4, 8, 0, 120, 300, 0)));
+
+        assertEquals(Arrays.asList(2, 4, 1, 3), ids(filter.apply(Query.DEFAULT)));
+        assertEquals(Arrays.asList(2, 3, 1, 4),
+                ids(filter.apply(Query.DEFAULT.withSort(Sort.PRICE))));
+        assertEquals(Arrays.asList(3, 2, 1, 4),
+                ids(filter.apply(Query.DEFAULT.withSort(Sort.DURATION))));
+    }
+
+    @Test
+    public void priceLimitIsInclusiveAndLeavesOutUnpricedTrips() {
+        TripSortFilter filter = TripSortFilter.of(Arrays.asList(
+                trip(1, 8, 0, 60, 300, 150),
+                trip(2, 9, 0, 60, 0, 100),
+                trip(3, 10, 0, 60, 200, 0),
+                trip(4, 11, 0, 60, 250, 120)));
+
+        assertEquals(Arrays.asList(3, 4), ids(filter.apply(Query.DEFAULT.withMaxPrice(250))));
+        assertEquals(Arrays.asList(2, 4), ids(filter.apply(Query.DEFAULT
+                .withSeatClass(SeatClass.SECOND).withMaxPrice(120))));
+        assertEquals(300, filter.getMaxPrice(SeatClass.FIRST));
+        assertEquals(200, filter.getMinPrice(SeatClass.FIRST));
+        assertEquals(100, filter.getMinPrice(SeatClass.SECOND));
+    }
+
+    @Test
+    public void unpricedTripsAreKeptAndSortLastByPrice() {
+        TripSortFilter filter = TripSortFilter.of(Arrays.asList(
+                trip(1, 8, 0, 60, 0, 100),
+                trip(2, 9, 0, 60, 300, 0),
+                trip(3, 10, 0, 60, 200, 0)));
+
+        // The other class's fare is not used in place of a missing one
+        assertEquals(Arrays.asList(1, 2, 3), ids(filter.apply(Query.DEFAULT)));
+        assertEquals(Arrays.asList(3, 2, 1),
+                ids(filter.apply(Query.DEFAULT.withSort(Sort.PRICE))));
+        assertEquals(Arrays.asList(1, 2, 3), ids(filter.apply(Query.DEFAULT
+                .withSeatClass(SeatClass.SECOND).withSort(Sort.PRICE))));
+    }
+
+    @Test
+    public void untimedTripsOnlyMatchAnyWindowAndSortLast() {
+        TripSortFilter filter = TripSortFilter.of(Arrays.asList(
+                new TripDisplayModel(1, 1, 1, 2, "", "", "", "", 0, 0, 100, 0),
+                trip(2, 23, 0, 60, 100, 0),
+                trip(3, 6, 0, 60, 100, 0)));
+
+        assertEquals(Arrays.asList(3, 2, 1), ids(filter.apply(Query.DEFAULT)));
+        assertEquals(Arrays.asList(2, 3, 1),
+                ids(filter.apply(Query.DEFAULT.withSort(Sort.DURATION))));
+        assertEquals(Arrays.asList(2),
+                ids(filter.apply(Query.DEFAULT.withDepartureWindow(DepartureWindow.NIGHT))));
+    }
+
+    private static TripDisplayModel trip(int id, int hour, int minute, int durationMinutes,
+                                         int firstClassPrice, int secondClassPrice) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2019, Calendar.JUNE, 3, hour, minute);
+        long departure = calendar.getTimeInMillis();
+        long arrival = departure + durationMinutes * 60_000L;
+        return new TripDisplayModel(id, 1, 1, 2, "", "", "", "", departure, arrival,
+                firstClassPrice, secondClassPrice);
+    }
+
+    private static List<Integer> ids(List<TripDisplayModel> trips) {
+        List<Integer> ids = new ArrayList<>(trips.size());
+        for (TripDisplayModel trip : trips) {
+            ids.add(trip.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Runs the JMH benchmarks in :benchmark-jvm and keeps the JSON results of each
+# commit in benchmark-jvm/results/<commit>.json.
+#
+# usage: scripts/benchmark.sh [baseline commit] [benchmark regex]
+# With a baseline whose results were kept earlier, prints the change in score of
+# every benchmark against it. Only compare results taken on the same machine.
+set -euo pipefail
+
+BASELINE=${1:-}
+INCLUDE=${2:-.*}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+RESULTS=$ROOT/benchmark-jvm/results
+
+COMMIT=$(git -C "$ROOT" rev-parse --short HEAD)
+if [ -n "$(git -C "$ROOT" status --porcelain -- core benchmark-jvm/src)" ]; then
+    COMMIT=$COMMIT-dirty
+fi
+
+"$ROOT/gradlew" -p "$ROOT" :benchmark-jvm:jmh -PjmhInclude="$INCLUDE"
+
+mkdir -p "$RESULTS"
+cp "$ROOT/benchmark-jvm/build/reports/jmh/results.json" "$RESULTS/$COMMIT.json"
+echo "Saved $RESULTS/$COMMIT.json"
+
+if [ -z "$BASELINE" ]; then
+    exit 0
+fi
+BASELINE_FILE=$RESULTS/$(git -C "$ROOT" rev-parse --short "$BASELINE").json
+if [ ! -f "$BASELINE_FILE" ]; then
+    echo "No results for $BASELINE, run this script on that commit first" >&2
+    exit 1
+fi
+
+python3 - "$BASELINE_FILE" "$RESULTS/$COMMIT.json" <<'PY'
+import json
+import sys
+
+
+def scores(path):
+    with open(path) as f:
+        runs = json.load(f)
+    result = {}
+    for run in runs:
+        params = ",".join("%s=%s" % p for p in sorted(run.get("params", {}).items()))
+        name = run["benchmark"].rsplit(".", 2)[-2:]
+        key = ".".join(name) + ("(" + params + ")" if params else "")
+        metric = run["primaryMetric"]
+        result[key] = (metric["score"], metric["scoreError"], metric["scoreUnit"])
+    return result
+
+
+before = scores(sys.argv[1])
+after = scores(sys.argv[2])
+for key in sorted(after):
+    score, error, unit = after[key]
+    if key not in before:
+        print("%-70s %12.3f %-6s (new)" % (key, score, unit))
+        continue
+    old = before[key][0]
+    change = (score - old) / old * 100 if old else 0.0
+    print("%-70s %12.3f %-6s %+7.1f%% (was %.3f, error %.3f)"
+          % (key, score, unit, change, old, error))
+PY
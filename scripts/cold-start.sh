@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Measures cold start of the installed app on the connected device.
+#
+# Every run force stops the app, drops it from memory and launches it with
+# `am start -W`. It prints the launch time and the time until the search screen
+# called reportFullyDrawn(), then the median of each.
+#
+# usage: scripts/cold-start.sh [runs] [max median fully drawn ms]
+# With a limit, the script exits 1 when the median is above it, e.g. on CI.
+set -euo pipefail
+
+RUNS=${1:-10}
+LIMIT=${2:-}
+PACKAGE=com.example.voyage
+ACTIVITY=$PACKAGE/.ui.searchbus.SearchBusActivity
+
+# "+1s234ms" or "+834ms" to milliseconds
+to_millis() {
+    tr -d '+' | sed 's/ms$//' | awk -F's' '{ print (NF == 2) ? $1 * 1000 + $2 : $1 }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) exit; print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+total_times=()
+drawn_times=()
+for run in $(seq 1 "$RUNS"); do
+    adb shell am force-stop "$PACKAGE"
+    adb shell am kill "$PACKAGE" > /dev/null 2>&1 || true
+    adb logcat -c
+    sleep 1
+
+    total=$(adb shell am start -W -n "$ACTIVITY" | tr -d '\r' | awk -F': ' '/TotalTime/ { print $2 }')
+    sleep 3
+    # e.g. "Fully drawn com.example.voyage/.ui.searchbus.SearchBusActivity: +1s234ms"
+    drawn=$(adb logcat -d -s ActivityManager ActivityTaskManager | tr -d '\r' \
+        | grep "Fully drawn $PACKAGE" | tail -n 1 | grep -o '+[0-9s]*ms' | to_millis || true)
+
+    echo "run $run: total ${total:-?} ms, fully drawn ${drawn:-?} ms"
+    [ -n "$total" ] && total_times+=("$total")
+    [ -n "$drawn" ] && drawn_times+=("$drawn")
+done
+
+total_median=$(printf '%s\n' "${total_times[@]:-}" | grep . | median || true)
+drawn_median=$(printf '%s\n' "${drawn_times[@]:-}" | grep . | median || true)
+echo "median total ${total_median:-?} ms, fully drawn ${drawn_median:-?} ms over $RUNS runs"
+
+if [ -n "$LIMIT" ] && [ -n "$drawn_median" ] && [ "$drawn_median" -gt "$LIMIT" ]; then
+    echo "fully drawn median ${drawn_median} ms is above ${LIMIT} ms" >&2
+    exit 1
+fi